@@ -0,0 +1,34 @@
+package frc.robot.commands.drive;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.subsystems.DriveSubsystem;
+
+/**
+ * Benchmarks DriveCommand.execute(), which runs every cycle in teleop
+ */
+@State(Scope.Thread)
+public class DriveCommandBenchmark {
+    private DriveCommand command;
+    // Joystick inputs that change every call
+    private double speed = 0;
+    private double turn = 0;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        command = new DriveCommand(() -> speed, () -> turn, new DriveSubsystem());
+        command.initialize();
+    }
+
+    @Benchmark
+    public void execute() {
+        speed = speed > 1 ? -1 : speed + 0.01;
+        turn = -speed;
+        command.execute();
+    }
+}
@@ -0,0 +1,59 @@
+package frc.robot.subsystems;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.drive.DifferentialDrive;
+
+/**
+ * Benchmarks the drivetrain work done every cycle
+ */
+@State(Scope.Thread)
+public class DriveSubsystemBenchmark {
+    private DriveSubsystem drive;
+    // Inputs that change every call, so nothing is constant-folded
+    private double speed = 0;
+    private double sensorReading = 0;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        drive = new DriveSubsystem();
+    }
+
+    private double nextSpeed() {
+        speed += 0.01;
+        if (speed > 1) {
+            speed = -1;
+        }
+        return speed;
+    }
+
+    @Benchmark
+    public void drive() {
+        double value = nextSpeed();
+        drive.drive(value, -value);
+    }
+
+    @Benchmark
+    public void curvatureDriveIK(Blackhole blackhole) {
+        double value = nextSpeed();
+        blackhole.consume(DifferentialDrive.curvatureDriveIK(value, -value, true));
+    }
+
+    @Benchmark
+    public double getMeters() {
+        sensorReading += 17;
+        return DriveSubsystem.getMeters(sensorReading);
+    }
+
+    @Benchmark
+    public double getMetersPerSecond() {
+        sensorReading += 17;
+        return DriveSubsystem.getMetersPerSecond(sensorReading);
+    }
+}
@@ -0,0 +1,29 @@
+package frc.robot.subsystems;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Benchmarks LEDSubsystem.setLedColor(), which SetLedColorCommand calls every cycle
+ */
+@State(Scope.Thread)
+public class LEDSubsystemBenchmark {
+    private LEDSubsystem led;
+    private int blue = 0;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        led = new LEDSubsystem();
+    }
+
+    @Benchmark
+    public void setLedColor() {
+        blue = (blue + 1) & 0xFF;
+        led.setLedColor(0, 0, blue);
+    }
+}
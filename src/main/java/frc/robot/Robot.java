@@ -4,9 +4,14 @@ package frc.robot;
 import edu.wpi.first.hal.FRCNetComm.tInstances;
 import edu.wpi.first.hal.FRCNetComm.tResourceType;
 import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.telemetry.CycleTimer;
+import frc.robot.telemetry.LoopProfiler;
 
 public class Robot extends TimedRobot {
 
@@ -14,20 +19,57 @@ public class Robot extends TimedRobot {
 
     private RobotContainer robotContainer;
 
+    private final LoopProfiler profiler = LoopProfiler.getInstance();
+
+    // The budget for one robot loop
+    private static final double CYCLE_BUDGET_MS = 20;
+
+    // Dashboard key for timing the first cycle after autonomousInit or
+    // teleopInit, or null once it has been timed
+    private String firstCycleKey = null;
+
     @Override
     public void robotInit() {
+        DataLogManager.start();
+        CommandScheduler.getInstance().onCommandExecute(profiler::recordCommand);
 
         robotContainer = new RobotContainer();
         HAL.report(tResourceType.kResourceType_Framework, tInstances.kFramework_RobotBuilder);
     }
 
+    /**
+     * Run one iteration of the robot loop, including mode changes. Lets the
+     * simulation harness step the robot without TimedRobot's timing loop.
+     */
+    public void runLoopOnce() {
+        loopFunc();
+    }
+
+    /**
+     * @return the robot's container, or null before robotInit()
+     */
+    public RobotContainer getRobotContainer() {
+        return robotContainer;
+    }
+
     @Override
     public void robotPeriodic() {
         /* Runs the Scheduler. 
         This is responsible for polling buttons, adding newly-scheduled commands, running already-scheduled commands, removing finished or interrupted commands, and running subsystem periodic() methods. 
         This must be called from the robot's periodic block in order for anything in the Command-based framework to work.
         */
+        profiler.beginCycle();
+        long start = System.nanoTime();
         CommandScheduler.getInstance().run();
+        if (firstCycleKey != null) {
+            double cycleMs = (System.nanoTime() - start) / 1e6;
+            SmartDashboard.putNumber(firstCycleKey, cycleMs);
+            if (cycleMs > CYCLE_BUDGET_MS) {
+                DriverStation.reportWarning(firstCycleKey + " over budget: " + cycleMs, false);
+            }
+            firstCycleKey = null;
+        }
+        profiler.endCycle();
     }
 
     @Override
@@ -36,14 +78,20 @@ public class Robot extends TimedRobot {
 
     @Override
     public void disabledPeriodic() {
+        // Autonomous routines come first; warm up in cycles that didn't build one
+        if (!robotContainer.buildAutonomousCommands()) {
+            robotContainer.warmUp();
+        }
     }
 
     @Override
     public void autonomousInit() {
+        CycleTimer.resetAll();
         autonomousCommand = robotContainer.getAutonomousCommand();
 
         if (autonomousCommand != null) {
             autonomousCommand.schedule();
+            firstCycleKey = "Auto/First Cycle (ms)";
         }
     }
 
@@ -60,6 +108,7 @@ public class Robot extends TimedRobot {
         if (autonomousCommand != null) {
             autonomousCommand.cancel();
         }
+        firstCycleKey = "Teleop/First Cycle (ms)";
     }
 
     @Override
@@ -1,17 +1,20 @@
 package frc.robot;
 
 import frc.robot.commands.*;
-import frc.robot.commands.autonomous.AutoDriveCommand;
 import frc.robot.commands.autonomous.AutoPickUpPiece;
+import frc.robot.commands.autonomous.AutoRegistry;
 import frc.robot.commands.autonomous.AutoScoreCommand;
 import frc.robot.commands.drive.DisableCurrentLimiting;
 import frc.robot.commands.autonomous.AutoScorePiece;
+import frc.robot.commands.autonomous.AutoTrajectories;
+import frc.robot.commands.autonomous.FollowTrajectoryCommand;
 import frc.robot.commands.drive.DriveCommand;
 import frc.robot.commands.drive.SetNeutralModeCommand;
+import frc.robot.hardware.BulkPowerDistribution;
+import frc.robot.hardware.DeviceConfigurator;
 import frc.robot.subsystems.*;
+import frc.robot.subsystems.ConveyorSubsystem.IntakeState;
 import frc.robot.subsystems.IntakeArmsSubsystem.ArmState;
-import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
@@ -20,10 +23,6 @@ import edu.wpi.first.wpilibj2.command.StartEndCommand;
 
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 
-import edu.wpi.first.wpilibj.Compressor;
-import edu.wpi.first.wpilibj.PneumaticsModuleType;
-import edu.wpi.first.wpilibj.PowerDistribution;
-import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
@@ -35,12 +34,17 @@ public class RobotContainer {
   private final IntakeArmsSubsystem intakeArms;
   private final IntakeRollersSubsystem intakeRollers;
   private final PowerDistributionPanelSubsystem pdp;
+  private final PneumaticsSubsystem pneumatics;
   private final LEDSubsystem ledSubsystem;
   // Joysticks
   private final CommandXboxController driveController;
 
-  // A chooser for autonomous commands
-  private final SendableChooser<Command> chooser;
+  // Autonomous routines, with a chooser for them
+  private final AutoRegistry autoRoutines;
+  // Autonomous paths, generated at startup
+  private final AutoTrajectories trajectories;
+  // Exercises the hot paths while disabled
+  private final WarmUp warmUp;
 
   private final double CONVEYOR_SPEED = 0.8;
   private final double INTAKE_ROLLER_SPEED = -0.5;
@@ -52,13 +56,13 @@ public class RobotContainer {
     // Initialize subsystems
     conveyor = new ConveyorSubsystem();
     drive = new DriveSubsystem();
-    intakeArms = new IntakeArmsSubsystem();
     intakeRollers = new IntakeRollersSubsystem();
-    pdp = new PowerDistributionPanelSubsystem(new PowerDistribution());
+    pdp = new PowerDistributionPanelSubsystem(new BulkPowerDistribution(), drive, conveyor, intakeRollers);
+    pneumatics = new PneumaticsSubsystem(pdp);
+    intakeArms = new IntakeArmsSubsystem(pneumatics);
     ledSubsystem = new LEDSubsystem();
-
-    // Initialize pneumatics
-    initializePneumatics();
+    // The subsystems' CAN devices are configured in parallel; wait for them all
+    DeviceConfigurator.getInstance().awaitAll();
 
     // Initialize controllers
     driveController = new CommandXboxController(0);
@@ -67,30 +71,28 @@ public class RobotContainer {
     drive.setDefaultCommand(
         new DriveCommand(() -> driveController.getLeftY(), () -> driveController.getRightX(), drive));
     conveyor.setDefaultCommand(new MoveConveyorCommand(-0.1, conveyor));
+    ledSubsystem.setDefaultCommand(new ShowIntakeStateCommand(ledSubsystem, conveyor));
 
     // Configure button bindings
     configureButtonBindings();
 
-    // Initialize autonomous chooser
-    chooser = new SendableChooser<>();
-    chooser.addOption("Score piece and escape",
-        new AutoScoreCommand(conveyor).andThen(new AutoDriveCommand(-0.25, 0, drive).withTimeout(4)));
-    chooser.addOption("Drive forward", new AutoDriveCommand(-0.25, 0, drive).withTimeout(2));
-    chooser.addOption("Score piece", new MoveConveyorCommand(0.8, conveyor).withTimeout(1));
-    chooser.addOption("Do nothing", new PrintCommand("Doing nothing!"));
-    chooser.addOption("Pick up piece", new AutoPickUpPiece(conveyor, drive, intakeArms, intakeRollers));
-    chooser.addOption("Score picked-up piece (blue)", new AutoScorePiece(Alliance.Blue, conveyor, drive, intakeArms, intakeRollers));
-    chooser.setDefaultOption("Score picked-up piece (red)", new AutoScorePiece(Alliance.Red, conveyor, drive, intakeArms, intakeRollers));
-    SmartDashboard.putData("Auto Mode", chooser);
-
-  }
-
-  // Used to start compressor
-  private void initializePneumatics() {
-    try (Compressor pcmCompressor = new Compressor(0, PneumaticsModuleType.CTREPCM)) {
-      pcmCompressor.enableDigital();
-      System.out.println("Compressor Initialized? " + pcmCompressor.isEnabled());
-    }
+    // Initialize autonomous routines. Commands are built later, while disabled.
+    trajectories = new AutoTrajectories(drive);
+    autoRoutines = new AutoRegistry();
+    autoRoutines.add("Score piece and escape",
+        () -> new AutoScoreCommand(conveyor).andThen(new FollowTrajectoryCommand(trajectories.getEscape(), true, drive)));
+    autoRoutines.add("Drive forward", () -> new FollowTrajectoryCommand(trajectories.getShortDrive(), true, drive));
+    autoRoutines.add("Score piece", () -> new MoveConveyorCommand(0.8, conveyor).withTimeout(1));
+    autoRoutines.add("Do nothing", () -> new PrintCommand("Doing nothing!"));
+    autoRoutines.add("Pick up piece", () -> new AutoPickUpPiece(conveyor, drive, intakeArms, intakeRollers, trajectories));
+    autoRoutines.addForAlliance("Score picked-up piece",
+        alliance -> new AutoScorePiece(alliance, conveyor, drive, intakeArms, intakeRollers, trajectories));
+    autoRoutines.setDefault("Score picked-up piece");
+    autoRoutines.publish("Auto Mode");
+
+    // Load the command classes now, rather than in the first enabled cycle
+    warmUp = new WarmUp(drive, intakeArms, conveyor, intakeRollers, trajectories);
+    warmUp.runOnce();
   }
 
   /**
@@ -112,7 +114,7 @@ public class RobotContainer {
     driveController.rightBumper()
         .onTrue(new StartEndCommand(() -> intakeArms.setArmState(ArmState.LOWERED),
             () -> intakeArms.setArmState(ArmState.RAISED))
-            .until(() -> !conveyor.isConveyorSensor() || !conveyor.isIntakeSensor()));
+            .until(() -> conveyor.getIntakeState() == IntakeState.INDEXED));
 
     driveController.a().onTrue(new EjectCommand(intakeArms, conveyor, intakeRollers));
 
@@ -135,7 +137,45 @@ public class RobotContainer {
    * @return the command to run in autonomous
    */
   public Command getAutonomousCommand() {
-    return chooser.getSelected();
+    return autoRoutines.getSelected();
+  }
+
+  /**
+   * Build the next autonomous routine that hasn't been built yet. Call while
+   * disabled.
+   *
+   * @return whether anything was built
+   */
+  public boolean buildAutonomousCommands() {
+    return autoRoutines.buildNext();
+  }
+
+  /**
+   * Run part of the JIT warm-up, if it isn't finished. Call while disabled.
+   */
+  public void warmUp() {
+    warmUp.runBatch();
+  }
+
+  /**
+   * @return the drivetrain, for tests that check where the robot went
+   */
+  public DriveSubsystem getDrive() {
+    return drive;
+  }
+
+  /**
+   * @return the conveyor, for tests that script the beam break sensors
+   */
+  public ConveyorSubsystem getConveyor() {
+    return conveyor;
+  }
+
+  /**
+   * @return the intake rollers, for tests that check they stopped
+   */
+  public IntakeRollersSubsystem getIntakeRollers() {
+    return intakeRollers;
   }
 
 }
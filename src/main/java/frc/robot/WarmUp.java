@@ -0,0 +1,142 @@
+package frc.robot;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.commands.EjectCommand;
+import frc.robot.commands.IntakeFromFloorCommand;
+import frc.robot.commands.MoveConveyorCommand;
+import frc.robot.commands.MoveIntakeRollersCommand;
+import frc.robot.commands.autonomous.AutoTrajectories;
+import frc.robot.commands.autonomous.FollowTrajectoryCommand;
+import frc.robot.commands.drive.DriveCommand;
+import frc.robot.hardware.Outputs;
+import frc.robot.subsystems.ConveyorSubsystem;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.IntakeArmsSubsystem;
+import frc.robot.subsystems.IntakeRollersSubsystem;
+import frc.robot.telemetry.CycleTimer;
+
+/**
+ * Runs the robot's command and subsystem hot paths while disabled, so the
+ * first enabled cycle doesn't pay for class loading and interpreted code.
+ *
+ * Each iteration calls initialize(), execute() and end() on private instances
+ * of the commands we run in a match. They are never scheduled. Subsystem
+ * outputs are muted while the commands run, so they do all of their
+ * calculations without writing to the motors, the solenoids or the conveyor's
+ * intake state. Nothing goes on the CAN bus before the match, and there is
+ * nothing to put back afterwards. The LEDs are skipped, since they stay on
+ * while disabled. Cycle timing is muted too, so no fake cycles are recorded.
+ */
+class WarmUp {
+    // HotSpot compiles a method with C2 after roughly 10,000 invocations
+    private static final int ITERATIONS = 12_000;
+    // Leave most of the 20 ms disabled loop for everything else
+    private static final long BATCH_BUDGET_NANOS = 5_000_000;
+    // Cycles each command group is executed for, enough to reach its later steps
+    private static final int GROUP_CYCLES = 4;
+
+    private final DriveSubsystem drive;
+
+    private final Command driveCommand;
+    private final Command conveyorCommand;
+    private final Command rollersCommand;
+    private final Command intakeCommand;
+    private final Command ejectCommand;
+    private final Command trajectoryCommand;
+
+    private int iterations = 0;
+    private long totalNanos = 0;
+
+    WarmUp(DriveSubsystem drive, IntakeArmsSubsystem intakeArms, ConveyorSubsystem conveyor,
+            IntakeRollersSubsystem intakeRollers, AutoTrajectories trajectories) {
+        this.drive = drive;
+
+        // Zero inputs, so even a mistaken enable would only stop the drivetrain
+        driveCommand = new DriveCommand(() -> 0, () -> 0, drive);
+        conveyorCommand = new MoveConveyorCommand(0, conveyor);
+        rollersCommand = new MoveIntakeRollersCommand(0, intakeRollers);
+        intakeCommand = new IntakeFromFloorCommand(intakeArms, conveyor, intakeRollers);
+        ejectCommand = new EjectCommand(intakeArms, conveyor, intakeRollers);
+        trajectoryCommand = new FollowTrajectoryCommand(trajectories.getShortDrive(), false, drive);
+    }
+
+    /**
+     * @return whether warm-up has run all of its iterations
+     */
+    boolean isDone() {
+        return iterations >= ITERATIONS;
+    }
+
+    /**
+     * Run one iteration, to load the classes. Call from robotInit().
+     */
+    void runOnce() {
+        run(0);
+    }
+
+    /**
+     * Run iterations until the batch's time budget is used up. Call from
+     * disabledPeriodic() until {@link #isDone()}.
+     */
+    void runBatch() {
+        run(BATCH_BUDGET_NANOS);
+    }
+
+    /**
+     * Run at least one iteration, and more until the time budget is used up
+     */
+    private void run(long budgetNanos) {
+        if (isDone()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long now = start;
+        long iterationNanos;
+        Outputs.setMuted(true);
+        CycleTimer.setMuted(true);
+        try {
+            do {
+                long iterationStart = now;
+                runIteration();
+                now = System.nanoTime();
+                iterationNanos = now - iterationStart;
+                if (iterations == 0) {
+                    SmartDashboard.putNumber("WarmUp/First Iteration (ms)", iterationNanos / 1e6);
+                }
+                iterations++;
+            } while (!isDone() && now - start < budgetNanos);
+        } finally {
+            // The robot must never be left unable to drive
+            CycleTimer.setMuted(false);
+            Outputs.setMuted(false);
+        }
+
+        totalNanos += now - start;
+        SmartDashboard.putNumber("WarmUp/Iterations", iterations);
+        SmartDashboard.putNumber("WarmUp/Time (ms)", totalNanos / 1e6);
+        if (isDone()) {
+            SmartDashboard.putNumber("WarmUp/Last Iteration (us)", iterationNanos / 1e3);
+        }
+    }
+
+    private void runIteration() {
+        // DriveCommand.initialize() writes its tuning values back to the dashboard
+        driveCommand.execute();
+        exercise(conveyorCommand, 1);
+        exercise(rollersCommand, 1);
+        exercise(intakeCommand, GROUP_CYCLES);
+        exercise(ejectCommand, GROUP_CYCLES);
+        exercise(trajectoryCommand, 1);
+        drive.driveVelocity(0, 0);
+    }
+
+    private static void exercise(Command command, int cycles) {
+        command.initialize();
+        for (int i = 0; i < cycles; i++) {
+            command.execute();
+            command.isFinished();
+        }
+        command.end(true);
+    }
+}
@@ -0,0 +1,62 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.ConveyorSubsystem;
+import frc.robot.subsystems.ConveyorSubsystem.IntakeState;
+import frc.robot.subsystems.IntakeRollersSubsystem;
+
+/**
+ * Run the conveyor and intake rollers until a piece breaks either beam.
+ *
+ * The conveyor's sensor interrupt stops both motors as soon as the piece
+ * arrives. This command only stops driving them once the conveyor leaves the
+ * ACQUIRING state, and finishes on the next cycle.
+ */
+public class AcquirePieceCommand extends CommandBase {
+    private final ConveyorSubsystem conveyor;
+    private final IntakeRollersSubsystem intakeRollers;
+    private final double conveyorSpeed;
+    // Created once, so initialize() and execute() don't allocate
+    private final Runnable stopRollers;
+    private final Runnable runRollers;
+
+    /**
+     * @param conveyorSpeed the conveyor speed, with the same sign as
+     *                      {@link MoveConveyorCommand}
+     * @param rollerSpeed   the intake roller speed
+     */
+    public AcquirePieceCommand(double conveyorSpeed, double rollerSpeed, ConveyorSubsystem conveyor,
+            IntakeRollersSubsystem intakeRollers) {
+        this.conveyor = conveyor;
+        this.intakeRollers = intakeRollers;
+        // Positive values move pieces towards the back
+        this.conveyorSpeed = -conveyorSpeed;
+        stopRollers = intakeRollers::stop;
+        runRollers = () -> intakeRollers.setSpeed(rollerSpeed);
+        addRequirements(conveyor, intakeRollers);
+    }
+
+    @Override
+    public void initialize() {
+        conveyor.startAcquiring(stopRollers);
+    }
+
+    @Override
+    public void execute() {
+        // Checked and set under the interrupts' lock, so we don't restart the
+        // motors the interrupt just stopped
+        conveyor.runIfAcquiring(conveyorSpeed, runRollers);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return conveyor.getIntakeState() != IntakeState.ACQUIRING;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        conveyor.cancelAcquiring();
+        conveyor.stop();
+        intakeRollers.stop();
+    }
+}
@@ -0,0 +1,69 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.InstantCommand;
+import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
+import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
+import frc.robot.subsystems.ConveyorSubsystem;
+import frc.robot.subsystems.ConveyorSubsystem.IntakeState;
+import frc.robot.telemetry.CycleTimer;
+import frc.robot.telemetry.CycleTimer.Event;
+
+/**
+ * Commands that time a sequence with a {@link CycleTimer}, and mark its steps
+ * from between the steps of the sequence
+ */
+public final class CycleCommands {
+    private CycleCommands() {
+    }
+
+    /**
+     * Run steps in sequence as one timed cycle. The cycle is recorded when the
+     * sequence ends, including when it is interrupted or cancelled.
+     *
+     * @param timer the sequence's timer
+     * @param steps the steps of the sequence
+     * @return the timed sequence
+     */
+    public static Command timed(CycleTimer timer, Command... steps) {
+        return new SequentialCommandGroup(steps)
+                .beforeStarting(timer::start)
+                .finallyDo(timer::done);
+    }
+
+    /**
+     * @param timer the sequence's timer
+     * @param event the step to mark
+     * @return a command that marks the step now
+     */
+    public static Command mark(CycleTimer timer, Event event) {
+        return new InstantCommand(() -> timer.mark(event));
+    }
+
+    /**
+     * Wait for the conveyor to reach a state, then mark the sensor step at the
+     * time of the interrupt that changed it. Requires nothing, so it can run
+     * alongside the commands moving the piece.
+     *
+     * @param timer    the sequence's timer
+     * @param conveyor the conveyor
+     * @param state    the state the sensor edge puts the conveyor in
+     * @return a command that marks the sensor step
+     */
+    public static Command markSensor(CycleTimer timer, ConveyorSubsystem conveyor, IntakeState state) {
+        return new WaitUntilCommand(() -> conveyor.getIntakeState() == state)
+                .andThen(() -> timer.mark(Event.SENSOR, conveyor.getStateChangeTimestamp()));
+    }
+
+    /**
+     * Mark the sensor step at the time of the interrupt that last changed the
+     * conveyor's state, for use right after a command that waits for it
+     *
+     * @param timer    the sequence's timer
+     * @param conveyor the conveyor
+     * @return a command that marks the sensor step
+     */
+    public static Command markSensor(CycleTimer timer, ConveyorSubsystem conveyor) {
+        return new InstantCommand(() -> timer.mark(Event.SENSOR, conveyor.getStateChangeTimestamp()));
+    }
+}
@@ -3,26 +3,40 @@ package frc.robot.commands;
 import edu.wpi.first.wpilibj2.command.ParallelDeadlineGroup;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import frc.robot.subsystems.ConveyorSubsystem;
+import frc.robot.subsystems.ConveyorSubsystem.IntakeState;
 import frc.robot.subsystems.IntakeArmsSubsystem;
 import frc.robot.subsystems.IntakeRollersSubsystem;
 import frc.robot.subsystems.IntakeArmsSubsystem.ArmState;
+import frc.robot.telemetry.CycleTimer;
+import frc.robot.telemetry.CycleTimer.Event;
 
 /**
  * This command executes multiple commands in sequence in order to eject an
  * object. It first lowers the intake, then activates the conveyor
  * and intake rollers at the same time with both of them rotating in reverse in
- * order to eject an object. Afterwards, it raises the intake.
+ * order to eject an object, until both beam breaks are clear. Afterwards, it
+ * raises the intake.
  */
 public class EjectCommand extends SequentialCommandGroup {
+        // Stop ejecting even if the sensors never see the piece leave
+        private final double EJECT_TIMEOUT = 2.0;
 
         public EjectCommand(IntakeArmsSubsystem intakeArms, ConveyorSubsystem conveyor,
                         IntakeRollersSubsystem intakeRollers) {
-                addCommands(
+                CycleTimer cycleTimer = CycleTimer.get("Eject");
+                addCommands(CycleCommands.timed(cycleTimer,
                                 new MoveIntakeCommand(ArmState.LOWERED, intakeArms),
+                                CycleCommands.mark(cycleTimer, Event.ARM_MOVED),
                                 new ParallelDeadlineGroup(
+                                                CycleCommands.markSensor(cycleTimer, conveyor, IntakeState.EMPTY)
+                                                                .withTimeout(EJECT_TIMEOUT),
                                                 new MoveConveyorCommand(-0.3, conveyor),
-                                                new MoveIntakeRollersCommand(0.3, intakeRollers)),
-                                new MoveIntakeCommand(ArmState.RAISED, intakeArms));
+                                                new MoveIntakeRollersCommand(0.3, intakeRollers))
+                                                .beforeStarting(conveyor::startEjecting)
+                                                // Leave EJECTING even after a timeout, an empty
+                                                // eject or an interruption
+                                                .finallyDo(interrupted -> conveyor.resetIntakeState()),
+                                new MoveIntakeCommand(ArmState.RAISED, intakeArms)));
         }
 
 }
\ No newline at end of file
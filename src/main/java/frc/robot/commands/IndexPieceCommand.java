@@ -0,0 +1,40 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.ConveyorSubsystem;
+
+/**
+ * Move the conveyor an exact distance with position control, and finish when
+ * it gets there
+ */
+public class IndexPieceCommand extends CommandBase {
+    private final ConveyorSubsystem conveyor;
+    private final double rotations;
+
+    /**
+     * @param rotations the distance in motor rotations, with the same sign as
+     *                  {@link MoveConveyorCommand}
+     * @param conveyor  the ConveyorSubsystem
+     */
+    public IndexPieceCommand(double rotations, ConveyorSubsystem conveyor) {
+        this.conveyor = conveyor;
+        // Positive values move pieces towards the back
+        this.rotations = -rotations;
+        addRequirements(conveyor);
+    }
+
+    @Override
+    public void initialize() {
+        conveyor.moveBy(rotations);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return conveyor.isAtTarget();
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        conveyor.stop();
+    }
+}
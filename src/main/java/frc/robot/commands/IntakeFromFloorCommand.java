@@ -1,33 +1,38 @@
 package frc.robot.commands;
 
-import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
-import edu.wpi.first.wpilibj2.command.WaitCommand;
 import frc.robot.subsystems.ConveyorSubsystem;
 import frc.robot.subsystems.IntakeArmsSubsystem;
 import frc.robot.subsystems.IntakeRollersSubsystem;
 import frc.robot.subsystems.IntakeArmsSubsystem.ArmState;
+import frc.robot.telemetry.CycleTimer;
+import frc.robot.telemetry.CycleTimer.Event;
 
 /**
  * This command executes multiple commands in sequence in order to intake an
  * object. It first lowers the intake, then activates the conveyor
  * and intake rollers at the same time with both of them rotating forwards in
- * order to intake an object. Afterwards, it raises the intake.
+ * order to intake an object, until a beam break sensor stops them. Afterwards,
+ * it raises the intake and backs the piece off the sensor by a set distance.
  */
 public class IntakeFromFloorCommand extends SequentialCommandGroup {
         private final double CONVEYOR_SPEED = 0.3;
         private final double INTAKE_ROLLER_SPEED = -0.5;
+        // How far to back the piece off the sensor, in conveyor motor rotations.
+        // A first guess, tune on the robot. The old backoff ran at 30% for 0.5 s.
+        private final double BACKOFF_ROTATIONS = 5;
+        // Give up on the backoff if the conveyor can't get there
+        private final double BACKOFF_TIMEOUT = 1.0;
         public IntakeFromFloorCommand(IntakeArmsSubsystem intakeArms, ConveyorSubsystem conveyor,
                         IntakeRollersSubsystem intakeRollers) {
-                addCommands(
+                CycleTimer cycleTimer = CycleTimer.get("IntakeFromFloor");
+                addCommands(CycleCommands.timed(cycleTimer,
                                 new MoveIntakeCommand(ArmState.LOWERED, intakeArms),
-                                new ParallelCommandGroup(
-                                                new MoveConveyorCommand(CONVEYOR_SPEED, conveyor),
-                                                new MoveIntakeRollersCommand(INTAKE_ROLLER_SPEED, intakeRollers))
-                                                .until(() -> !conveyor.isIntakeSensor() || !conveyor.isConveyorSensor()),
+                                new AcquirePieceCommand(CONVEYOR_SPEED, INTAKE_ROLLER_SPEED, conveyor, intakeRollers),
+                                CycleCommands.markSensor(cycleTimer, conveyor),
                                 new MoveIntakeCommand(ArmState.RAISED, intakeArms),
-                                new WaitCommand(1),
-                                new MoveConveyorCommand(-CONVEYOR_SPEED, conveyor).withTimeout(0.5));
+                                CycleCommands.mark(cycleTimer, Event.ARM_MOVED),
+                                new IndexPieceCommand(-BACKOFF_ROTATIONS, conveyor).withTimeout(BACKOFF_TIMEOUT)));
         }
 
 }
\ No newline at end of file
@@ -4,10 +4,13 @@ import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.ConveyorSubsystem;
 import frc.robot.subsystems.IntakeArmsSubsystem;
 import frc.robot.subsystems.IntakeArmsSubsystem.ArmState;
+import frc.robot.telemetry.CycleTimer;
+import frc.robot.telemetry.CycleTimer.Event;
 
 public class IntakeFromSubstationCommand extends CommandBase {
         IntakeArmsSubsystem intakeArms;
         ConveyorSubsystem conveyor;
+        private final CycleTimer cycleTimer = CycleTimer.get("IntakeFromSubstation");
 
         public IntakeFromSubstationCommand(IntakeArmsSubsystem intakeArms, ConveyorSubsystem conveyor) {
                 this.intakeArms = intakeArms;
@@ -17,6 +20,7 @@ public class IntakeFromSubstationCommand extends CommandBase {
 
         @Override
         public void initialize() {
+                cycleTimer.start();
                 intakeArms.setArmState(ArmState.LOWERED);
         }
 
@@ -27,7 +31,12 @@ public class IntakeFromSubstationCommand extends CommandBase {
 
         @Override
         public void end(boolean interrupted) {
+                if (!interrupted) {
+                        cycleTimer.mark(Event.SENSOR);
+                }
                 intakeArms.setArmState(ArmState.RAISED);
+                cycleTimer.mark(Event.ARM_MOVED);
+                cycleTimer.done(interrupted);
         }
 
 }
\ No newline at end of file
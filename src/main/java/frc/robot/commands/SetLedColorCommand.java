@@ -19,11 +19,13 @@ public class SetLedColorCommand extends CommandBase {
     }
 
     @Override
-    public void execute() {
+    public void initialize() {
+        // The color stays until something else changes it
         led.setLedColor(red, green, blue);
     }
 
-    public void end() {
+    @Override
+    public void end(boolean interrupted) {
         led.setLedColor(0, 0, 0);
     }
 
@@ -0,0 +1,46 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.ConveyorSubsystem;
+import frc.robot.subsystems.ConveyorSubsystem.IntakeState;
+import frc.robot.subsystems.LEDAnimation;
+import frc.robot.subsystems.LEDSubsystem;
+import frc.robot.subsystems.LEDSubsystem.Segment;
+
+/**
+ * Show the conveyor's intake state on the LEDs: blue when empty, an orange
+ * chase while acquiring, green with a piece, and pulsing red while ejecting.
+ * The animations are built once, here.
+ */
+public class ShowIntakeStateCommand extends CommandBase {
+    private static final int ORANGE = LEDSubsystem.rgb(255, 102, 0);
+    private static final int GREEN = LEDSubsystem.rgb(0, 255, 0);
+    private static final int RED = LEDSubsystem.rgb(255, 0, 0);
+
+    private final LEDSubsystem led;
+    private final ConveyorSubsystem conveyor;
+    // One animation per IntakeState, by ordinal
+    private final LEDAnimation[] animations = new LEDAnimation[IntakeState.values().length];
+
+    public ShowIntakeStateCommand(LEDSubsystem led, ConveyorSubsystem conveyor) {
+        this.led = led;
+        this.conveyor = conveyor;
+        int length = Segment.ALL.getLength();
+        animations[IntakeState.EMPTY.ordinal()] = LEDAnimation.solid(length, LEDSubsystem.BLUE);
+        animations[IntakeState.ACQUIRING.ordinal()] = LEDAnimation.chase(length, ORANGE, LEDSubsystem.OFF, 10, 1);
+        animations[IntakeState.INDEXED.ordinal()] = LEDAnimation.solid(length, GREEN);
+        animations[IntakeState.EJECTING.ordinal()] = LEDAnimation.pulse(length, RED, 25);
+        addRequirements(led);
+    }
+
+    @Override
+    public void execute() {
+        // Does nothing unless the state changed
+        led.play(Segment.ALL, animations[conveyor.getIntakeState().ordinal()]);
+    }
+
+    @Override
+    public boolean runsWhenDisabled() {
+        return true;
+    }
+}
@@ -1,5 +1,6 @@
 package frc.robot.commands.autonomous;
 
+import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.wpilibj2.command.ParallelRaceGroup;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
@@ -14,16 +15,24 @@ import frc.robot.subsystems.IntakeArmsSubsystem.ArmState;
 
 public class AutoPickUpPiece extends SequentialCommandGroup {
     public AutoPickUpPiece(ConveyorSubsystem conveyor, DriveSubsystem drive, IntakeArmsSubsystem intakeArms,
-            IntakeRollersSubsystem intakeRollers) {
+            IntakeRollersSubsystem intakeRollers, AutoTrajectories trajectories) {
+        this(conveyor, drive, intakeArms, intakeRollers, trajectories, trajectories.getToCommunity());
+    }
+
+    /**
+     * @param returnPath the path to follow after picking up the piece
+     */
+    AutoPickUpPiece(ConveyorSubsystem conveyor, DriveSubsystem drive, IntakeArmsSubsystem intakeArms,
+            IntakeRollersSubsystem intakeRollers, AutoTrajectories trajectories, Trajectory returnPath) {
         addCommands(
                 new MoveConveyorCommand(0.8, conveyor).withTimeout(1), // spit out piece
                 new WaitCommand(1), // Wait for cube to settle
-                new AutoDriveCommand(-0.25, 0, drive).withTimeout(2),
+                new FollowTrajectoryCommand(trajectories.getToIntakeStart(), true, drive),
                 new ParallelRaceGroup(
-                        new AutoDriveCommand(-0.25, 0, drive).withTimeout(2.25), // go to a piece
+                        new FollowTrajectoryCommand(trajectories.getToPiece(), false, drive), // go to a piece
                         new IntakeFromFloorCommand(intakeArms, conveyor, intakeRollers)), // pick up the piece
                 new MoveIntakeCommand(ArmState.RAISED, intakeArms),
-                new AutoDriveCommand(0.25, 0, drive).withTimeout(4) // return to the community
+                new FollowTrajectoryCommand(returnPath, false, drive) // return to the community
 
         );
     }
@@ -0,0 +1,145 @@
+package frc.robot.commands.autonomous;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+
+/**
+ * Holds the autonomous routines and builds their commands while the robot is
+ * disabled, so nothing is constructed when autonomous starts.
+ *
+ * Routines that depend on the alliance are built for both alliances, and the
+ * right one is picked from the DriverStation at autonomousInit. Build times are
+ * published under "Auto/Build Time".
+ */
+public class AutoRegistry {
+    private static final Alliance DEFAULT_ALLIANCE = Alliance.Red;
+
+    private final SendableChooser<String> chooser = new SendableChooser<>();
+    private final LinkedHashMap<String, Routine> routines = new LinkedHashMap<>();
+    // Routine variants not built yet, in the order they were added
+    private final ArrayList<Variant> pending = new ArrayList<>();
+
+    // One buildable command, for one routine and alliance
+    private static class Variant {
+        final String label;
+        final Supplier<Command> factory;
+        Command command;
+
+        Variant(String label, Supplier<Command> factory) {
+            this.label = label;
+            this.factory = factory;
+        }
+
+        Command get() {
+            if (command == null) {
+                long start = System.nanoTime();
+                command = factory.get();
+                SmartDashboard.putNumber("Auto/Build Time/" + label + " (ms)", (System.nanoTime() - start) / 1e6);
+            }
+            return command;
+        }
+    }
+
+    private static class Routine {
+        final Variant red;
+        final Variant blue;
+
+        Routine(Variant red, Variant blue) {
+            this.red = red;
+            this.blue = blue;
+        }
+    }
+
+    /**
+     * Add a routine that is the same for both alliances
+     *
+     * @param name    the name shown in the chooser
+     * @param factory builds the routine's command
+     */
+    public void add(String name, Supplier<Command> factory) {
+        Variant variant = new Variant(name, factory);
+        pending.add(variant);
+        addRoutine(name, new Routine(variant, variant));
+    }
+
+    /**
+     * Add a routine that depends on the alliance
+     *
+     * @param name    the name shown in the chooser
+     * @param factory builds the routine's command for an alliance
+     */
+    public void addForAlliance(String name, Function<Alliance, Command> factory) {
+        Variant red = new Variant(name + " (red)", () -> factory.apply(Alliance.Red));
+        Variant blue = new Variant(name + " (blue)", () -> factory.apply(Alliance.Blue));
+        pending.add(red);
+        pending.add(blue);
+        addRoutine(name, new Routine(red, blue));
+    }
+
+    private void addRoutine(String name, Routine routine) {
+        if (routines.isEmpty()) {
+            chooser.setDefaultOption(name, name);
+        } else {
+            chooser.addOption(name, name);
+        }
+        routines.put(name, routine);
+    }
+
+    /**
+     * Make a routine the chooser's default
+     *
+     * @param name the routine's name
+     */
+    public void setDefault(String name) {
+        chooser.setDefaultOption(name, name);
+    }
+
+    /**
+     * Publish the chooser to the dashboard
+     *
+     * @param key the dashboard key
+     */
+    public void publish(String key) {
+        SmartDashboard.putData(key, chooser);
+    }
+
+    /**
+     * Build the next routine that hasn't been built. Call while disabled; builds
+     * one command per call to keep each loop short.
+     *
+     * @return whether anything was built
+     */
+    public boolean buildNext() {
+        if (pending.isEmpty()) {
+            return false;
+        }
+        pending.remove(0).get();
+        return true;
+    }
+
+    /**
+     * Get the selected routine for the current alliance, building it now if it
+     * wasn't built while disabled
+     *
+     * @return the command to run, or null if nothing is selected
+     */
+    public Command getSelected() {
+        Routine routine = routines.get(chooser.getSelected());
+        if (routine == null) {
+            return null;
+        }
+        Alliance alliance = DriverStation.getAlliance();
+        if (alliance == Alliance.Invalid) {
+            alliance = DEFAULT_ALLIANCE;
+        }
+        return alliance == Alliance.Blue ? routine.blue.get() : routine.red.get();
+    }
+}
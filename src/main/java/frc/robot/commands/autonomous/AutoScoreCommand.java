@@ -2,15 +2,20 @@ package frc.robot.commands.autonomous;
 
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
+import frc.robot.commands.CycleCommands;
 import frc.robot.commands.MoveConveyorCommand;
 import frc.robot.subsystems.ConveyorSubsystem;
+import frc.robot.subsystems.ConveyorSubsystem.IntakeState;
+import frc.robot.telemetry.CycleTimer;
 
 public class AutoScoreCommand extends SequentialCommandGroup {
     public AutoScoreCommand(ConveyorSubsystem conveyor) {
-        addCommands(
-            new MoveConveyorCommand(0.8, conveyor).withTimeout(1), // spit out piece
+        CycleTimer cycleTimer = CycleTimer.get("AutoScore");
+        addCommands(CycleCommands.timed(cycleTimer,
+            new MoveConveyorCommand(0.8, conveyor).withTimeout(1) // spit out piece
+                .deadlineWith(CycleCommands.markSensor(cycleTimer, conveyor, IntakeState.EMPTY)),
             new WaitCommand(1)
-        );
+        ));
     }
     
 }
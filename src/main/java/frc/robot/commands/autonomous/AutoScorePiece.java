@@ -10,10 +10,9 @@ import frc.robot.subsystems.IntakeRollersSubsystem;
 public class AutoScorePiece extends SequentialCommandGroup {
 
     public AutoScorePiece(Alliance alliance, ConveyorSubsystem conveyor, DriveSubsystem drive,
-            IntakeArmsSubsystem intakeArms, IntakeRollersSubsystem intakeRollers) {
-        addCommands(new AutoPickUpPiece(conveyor, drive, intakeArms, intakeRollers),
-                new AutoDriveCommand(0, 0.25 * (alliance == Alliance.Red ? -1 : 1), drive).withTimeout(0.2),
-                new AutoDriveCommand(0.25, 0, drive).withTimeout(0.5),
+            IntakeArmsSubsystem intakeArms, IntakeRollersSubsystem intakeRollers, AutoTrajectories trajectories) {
+        addCommands(new AutoPickUpPiece(conveyor, drive, intakeArms, intakeRollers, trajectories,
+                trajectories.getToNode(alliance)),
                 new AutoScoreCommand(conveyor));
     }
 
@@ -0,0 +1,133 @@
+package frc.robot.commands.autonomous;
+
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import edu.wpi.first.math.trajectory.constraint.DifferentialDriveVoltageConstraint;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import frc.robot.subsystems.DriveSubsystem;
+
+/**
+ * The paths driven in autonomous, generated once when the robot starts so
+ * nothing is computed when autonomous begins.
+ *
+ * Poses are relative to where the robot starts, facing the grid: +x is towards
+ * the grid and the robot backs away from it. Distances were estimated from the
+ * old timed routines and should be checked on the field.
+ */
+public class AutoTrajectories {
+    // Path limits. The old timed routines drove at 25% power.
+    private static final double MAX_SPEED = 3.0; // m/s
+    private static final double MAX_ACCELERATION = 2.0; // m/s^2
+    private static final double MAX_VOLTAGE = 10.0;
+
+    // Distances, in meters
+    private static final double SHORT_DRIVE = 2.0;
+    private static final double ESCAPE = 4.0;
+    // Where the robot starts running the intake, and where the piece is
+    private static final double INTAKE_START = 2.5;
+    private static final double PIECE = 5.0;
+    // Where the robot stops after bringing a piece back
+    private static final double COMMUNITY = 1.0;
+    // Sideways distance to the next scoring node
+    private static final double NODE_OFFSET = 0.5;
+
+    private final Trajectory shortDrive;
+    private final Trajectory escape;
+    private final Trajectory toIntakeStart;
+    private final Trajectory toPiece;
+    private final Trajectory toCommunity;
+    private final Trajectory toRedNode;
+    private final Trajectory toBlueNode;
+
+    /**
+     * Generate every autonomous path
+     *
+     * @param drive the DriveSubsystem, for its kinematics and feedforward
+     */
+    public AutoTrajectories(DriveSubsystem drive) {
+        TrajectoryConfig forward = new TrajectoryConfig(MAX_SPEED, MAX_ACCELERATION)
+                .setKinematics(drive.getKinematics())
+                .addConstraint(new DifferentialDriveVoltageConstraint(drive.getFeedforward(), drive.getKinematics(),
+                        MAX_VOLTAGE));
+        TrajectoryConfig reversed = new TrajectoryConfig(MAX_SPEED, MAX_ACCELERATION)
+                .setKinematics(drive.getKinematics())
+                .addConstraint(new DifferentialDriveVoltageConstraint(drive.getFeedforward(), drive.getKinematics(),
+                        MAX_VOLTAGE))
+                .setReversed(true);
+        // Keep moving between the two halves of the trip to the piece
+        TrajectoryConfig reversedToIntake = new TrajectoryConfig(MAX_SPEED, MAX_ACCELERATION)
+                .setKinematics(drive.getKinematics())
+                .setReversed(true)
+                .setEndVelocity(MAX_SPEED / 2);
+        TrajectoryConfig reversedFromIntake = new TrajectoryConfig(MAX_SPEED / 2, MAX_ACCELERATION)
+                .setKinematics(drive.getKinematics())
+                .setReversed(true)
+                .setStartVelocity(MAX_SPEED / 2);
+
+        shortDrive = straight(0, -SHORT_DRIVE, reversed);
+        escape = straight(0, -ESCAPE, reversed);
+        toIntakeStart = straight(0, -INTAKE_START, reversedToIntake);
+        toPiece = straight(-INTAKE_START, -PIECE, reversedFromIntake);
+        toCommunity = straight(-PIECE, -COMMUNITY, forward);
+        toRedNode = toNode(-NODE_OFFSET, forward);
+        toBlueNode = toNode(NODE_OFFSET, forward);
+    }
+
+    private static Trajectory straight(double fromX, double toX, TrajectoryConfig config) {
+        return TrajectoryGenerator.generateTrajectory(new Pose2d(fromX, 0, new Rotation2d()), List.of(),
+                new Pose2d(toX, 0, new Rotation2d()), config);
+    }
+
+    private static Trajectory toNode(double y, TrajectoryConfig config) {
+        return TrajectoryGenerator.generateTrajectory(new Pose2d(-PIECE, 0, new Rotation2d()), List.of(),
+                new Pose2d(0, y, new Rotation2d()), config);
+    }
+
+    /**
+     * @return a short drive away from the grid
+     */
+    public Trajectory getShortDrive() {
+        return shortDrive;
+    }
+
+    /**
+     * @return a drive far enough from the grid to leave the community
+     */
+    public Trajectory getEscape() {
+        return escape;
+    }
+
+    /**
+     * @return the first part of the trip to the piece, before the intake runs
+     */
+    public Trajectory getToIntakeStart() {
+        return toIntakeStart;
+    }
+
+    /**
+     * @return the slower part of the trip to the piece, while intaking
+     */
+    public Trajectory getToPiece() {
+        return toPiece;
+    }
+
+    /**
+     * @return the trip from the piece back into the community
+     */
+    public Trajectory getToCommunity() {
+        return toCommunity;
+    }
+
+    /**
+     * @param alliance the robot's alliance
+     * @return the trip from the piece to the next scoring node for that alliance
+     */
+    public Trajectory getToNode(Alliance alliance) {
+        return alliance == Alliance.Red ? toRedNode : toBlueNode;
+    }
+}
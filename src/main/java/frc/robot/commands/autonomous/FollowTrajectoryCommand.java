@@ -0,0 +1,47 @@
+package frc.robot.commands.autonomous;
+
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+
+import edu.wpi.first.math.controller.RamseteController;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj2.command.RamseteCommand;
+import frc.robot.subsystems.DriveSubsystem;
+
+/**
+ * Follows a precomputed trajectory with a RAMSETE controller, using the
+ * drivetrain's closed-loop velocity control.
+ */
+public class FollowTrajectoryCommand extends RamseteCommand {
+    private final DriveSubsystem drive;
+    private final Trajectory trajectory;
+    private final boolean resetPose;
+
+    /**
+     * @param trajectory the trajectory to follow
+     * @param resetPose  whether to reset odometry to the trajectory's start.
+     *                   Should be true for the first path of a routine.
+     * @param drive      the DriveSubsystem
+     */
+    public FollowTrajectoryCommand(Trajectory trajectory, boolean resetPose, DriveSubsystem drive) {
+        super(trajectory, drive::getPose, new RamseteController(), drive.getKinematics(), drive::setWheelVelocities,
+                drive);
+        this.drive = drive;
+        this.trajectory = trajectory;
+        this.resetPose = resetPose;
+    }
+
+    @Override
+    public void initialize() {
+        drive.setNeutralMode(NeutralMode.Brake);
+        if (resetPose) {
+            drive.resetPose(trajectory.getInitialPose());
+        }
+        super.initialize();
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        super.end(interrupted);
+        drive.stop();
+    }
+}
@@ -0,0 +1,148 @@
+package frc.robot.commands.drive;
+
+import java.util.EnumSet;
+
+import edu.wpi.first.networktables.BooleanEntry;
+import edu.wpi.first.networktables.DoubleEntry;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.Subscriber;
+
+/**
+ * The drive tuning values on the dashboard, shared by every DriveCommand.
+ *
+ * The entries and their value listeners are created once, however many
+ * DriveCommands there are. The listeners run on the NetworkTables thread and
+ * publish a complete, immutable set of values, which each command picks up at
+ * the start of its next cycle.
+ */
+final class DriveTuning {
+    /**
+     * A complete set of tuning values, so they are applied together
+     */
+    static final class Values {
+        final double speedScale;
+        final double turnScale;
+        final boolean squareInputs;
+        final boolean closedLoop;
+        final double positiveSpeedRateLimit;
+        final double negativeSpeedRateLimit;
+        final double positiveTurnRateLimit;
+        final double negativeTurnRateLimit;
+
+        Values(double speedScale, double turnScale, boolean squareInputs, boolean closedLoop,
+                double positiveSpeedRateLimit, double negativeSpeedRateLimit, double positiveTurnRateLimit,
+                double negativeTurnRateLimit) {
+            this.speedScale = speedScale;
+            this.turnScale = turnScale;
+            this.squareInputs = squareInputs;
+            this.closedLoop = closedLoop;
+            this.positiveSpeedRateLimit = positiveSpeedRateLimit;
+            this.negativeSpeedRateLimit = negativeSpeedRateLimit;
+            this.positiveTurnRateLimit = positiveTurnRateLimit;
+            this.negativeTurnRateLimit = negativeTurnRateLimit;
+        }
+    }
+
+    // Scale joystick speed by 1 and rotation by 0.3, square the inputs and use
+    // percent output
+    static final Values DEFAULTS = new Values(1, 0.3, true, false, 5.0, -5.0, 10.0, -10.0);
+
+    private static DriveTuning instance;
+
+    private final DoubleEntry speedScaleEntry;
+    private final DoubleEntry turnScaleEntry;
+    private final BooleanEntry squareInputsEntry;
+    private final BooleanEntry closedLoopEntry;
+    private final DoubleEntry positiveSpeedRateLimitEntry;
+    private final DoubleEntry negativeSpeedRateLimitEntry;
+    private final DoubleEntry positiveTurnRateLimitEntry;
+    private final DoubleEntry negativeTurnRateLimitEntry;
+    private final int[] listenerHandles;
+
+    // Newest values from the listener thread, or null if nothing changed since startup
+    private volatile Values latest = null;
+
+    private DriveTuning() {
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+        speedScaleEntry = table.getDoubleTopic("Speed Scale").getEntry(DEFAULTS.speedScale);
+        turnScaleEntry = table.getDoubleTopic("Turn Scale").getEntry(DEFAULTS.turnScale);
+        squareInputsEntry = table.getBooleanTopic("Square Inputs").getEntry(DEFAULTS.squareInputs);
+        closedLoopEntry = table.getBooleanTopic("Closed Loop Drive").getEntry(DEFAULTS.closedLoop);
+        positiveSpeedRateLimitEntry = table.getDoubleTopic("Positive Speed Rate Limit")
+                .getEntry(DEFAULTS.positiveSpeedRateLimit);
+        negativeSpeedRateLimitEntry = table.getDoubleTopic("Negative Speed Rate Limit")
+                .getEntry(DEFAULTS.negativeSpeedRateLimit);
+        positiveTurnRateLimitEntry = table.getDoubleTopic("Positive Turn Rate Limit")
+                .getEntry(DEFAULTS.positiveTurnRateLimit);
+        negativeTurnRateLimitEntry = table.getDoubleTopic("Negative Turn Rate Limit")
+                .getEntry(DEFAULTS.negativeTurnRateLimit);
+
+        Subscriber[] entries = { speedScaleEntry, turnScaleEntry, squareInputsEntry, closedLoopEntry,
+                positiveSpeedRateLimitEntry, negativeSpeedRateLimitEntry, positiveTurnRateLimitEntry,
+                negativeTurnRateLimitEntry };
+        listenerHandles = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            listenerHandles[i] = NetworkTableInstance.getDefault().addListener(entries[i],
+                    EnumSet.of(NetworkTableEvent.Kind.kValueAll), event -> readValues());
+        }
+    }
+
+    /**
+     * @return the shared tuning values, creating the entries and listeners the
+     *         first time
+     */
+    static synchronized DriveTuning getInstance() {
+        if (instance == null) {
+            instance = new DriveTuning();
+        }
+        return instance;
+    }
+
+    /**
+     * Remove the listeners, so the next {@link #getInstance()} starts over.
+     * For tests that restart NetworkTables.
+     */
+    static synchronized void close() {
+        if (instance != null) {
+            for (int handle : instance.listenerHandles) {
+                NetworkTableInstance.getDefault().removeListener(handle);
+            }
+            instance = null;
+        }
+    }
+
+    /**
+     * Read all tuning values. Runs on the NetworkTables listener thread.
+     */
+    private void readValues() {
+        latest = new Values(speedScaleEntry.get(), turnScaleEntry.get(), squareInputsEntry.get(),
+                closedLoopEntry.get(), positiveSpeedRateLimitEntry.get(), negativeSpeedRateLimitEntry.get(),
+                positiveTurnRateLimitEntry.get(), negativeTurnRateLimitEntry.get());
+    }
+
+    /**
+     * @return the newest values from the dashboard, or null if none have
+     *         changed since startup. A new object every time they change.
+     */
+    Values getLatest() {
+        return latest;
+    }
+
+    /**
+     * Write values back to the dashboard, so it shows what is in use
+     *
+     * @param values the values in use
+     */
+    void publish(Values values) {
+        speedScaleEntry.set(values.speedScale);
+        turnScaleEntry.set(values.turnScale);
+        squareInputsEntry.set(values.squareInputs);
+        closedLoopEntry.set(values.closedLoop);
+        positiveSpeedRateLimitEntry.set(values.positiveSpeedRateLimit);
+        negativeSpeedRateLimitEntry.set(values.negativeSpeedRateLimit);
+        positiveTurnRateLimitEntry.set(values.positiveTurnRateLimit);
+        negativeTurnRateLimitEntry.set(values.negativeTurnRateLimit);
+    }
+}
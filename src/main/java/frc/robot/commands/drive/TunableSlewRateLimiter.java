@@ -0,0 +1,60 @@
+package frc.robot.commands.drive;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.util.WPIUtilJNI;
+
+/**
+ * Same as WPILib's SlewRateLimiter, but the rate limits can be changed without
+ * creating a new limiter and without resetting its current value.
+ */
+class TunableSlewRateLimiter {
+    private double positiveRateLimit;
+    private double negativeRateLimit;
+    private double prevVal;
+    private double prevTime;
+
+    /**
+     * @param positiveRateLimit the fastest rate of increase, in units per second
+     * @param negativeRateLimit the fastest rate of decrease, in units per second (negative)
+     */
+    TunableSlewRateLimiter(double positiveRateLimit, double negativeRateLimit) {
+        setRateLimits(positiveRateLimit, negativeRateLimit);
+        prevVal = 0;
+        prevTime = WPIUtilJNI.now() * 1e-6;
+    }
+
+    /**
+     * Change the rate limits, keeping the current value
+     *
+     * @param positiveRateLimit the fastest rate of increase, in units per second
+     * @param negativeRateLimit the fastest rate of decrease, in units per second (negative)
+     */
+    void setRateLimits(double positiveRateLimit, double negativeRateLimit) {
+        this.positiveRateLimit = positiveRateLimit;
+        this.negativeRateLimit = negativeRateLimit;
+    }
+
+    /**
+     * Filter an input
+     *
+     * @param input the input
+     * @return the input, limited to the allowed rate of change
+     */
+    double calculate(double input) {
+        double currentTime = WPIUtilJNI.now() * 1e-6;
+        double elapsedTime = currentTime - prevTime;
+        prevVal += MathUtil.clamp(input - prevVal, negativeRateLimit * elapsedTime, positiveRateLimit * elapsedTime);
+        prevTime = currentTime;
+        return prevVal;
+    }
+
+    /**
+     * Reset the limiter to a value
+     *
+     * @param value the new value
+     */
+    void reset(double value) {
+        prevVal = value;
+        prevTime = WPIUtilJNI.now() * 1e-6;
+    }
+}
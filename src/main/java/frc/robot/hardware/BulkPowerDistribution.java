@@ -0,0 +1,106 @@
+package frc.robot.hardware;
+
+import edu.wpi.first.hal.FRCNetComm.tResourceType;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.hal.PowerDistributionJNI;
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+
+/**
+ * The PDP or PDH, with a bulk read of every channel's current.
+ *
+ * WPILib 2023's PowerDistribution only reads one channel per call. The HAL can
+ * fill an array with all channels from the latest status frames in one call,
+ * but PowerDistribution keeps its handle private, so this class opens the
+ * device itself.
+ */
+public class BulkPowerDistribution implements Sendable, AutoCloseable {
+    private final int handle;
+    private final int channelCount;
+
+    /**
+     * Open the default power distribution device, detecting its type
+     */
+    public BulkPowerDistribution() {
+        handle = PowerDistributionJNI.initialize(PowerDistributionJNI.DEFAULT_MODULE,
+                PowerDistributionJNI.AUTOMATIC_TYPE);
+        channelCount = PowerDistributionJNI.getNumChannels(handle);
+        HAL.report(tResourceType.kResourceType_PDP, PowerDistributionJNI.getModuleNumber(handle) + 1);
+    }
+
+    @Override
+    public void close() {
+        PowerDistributionJNI.free(handle);
+    }
+
+    /**
+     * @return the number of channels, 16 for the PDP and 24 for the PDH
+     */
+    public int getNumChannels() {
+        return channelCount;
+    }
+
+    /**
+     * Read every channel's current in one call
+     *
+     * @param currents filled with the current of each channel, in amps. Must
+     *                 hold at least {@link #getNumChannels()} values.
+     */
+    public void getAllCurrents(double[] currents) {
+        PowerDistributionJNI.getAllCurrents(handle, currents);
+    }
+
+    /**
+     * @param channel the channel
+     * @return the channel's current, in amps
+     */
+    public double getCurrent(int channel) {
+        return PowerDistributionJNI.getChannelCurrent(handle, channel);
+    }
+
+    /**
+     * @return the input voltage, in volts
+     */
+    public double getVoltage() {
+        return PowerDistributionJNI.getVoltage(handle);
+    }
+
+    /**
+     * @return the temperature, in degrees Celsius
+     */
+    public double getTemperature() {
+        return PowerDistributionJNI.getTemperature(handle);
+    }
+
+    /**
+     * @return the total current of all channels, in amps
+     */
+    public double getTotalCurrent() {
+        return PowerDistributionJNI.getTotalCurrent(handle);
+    }
+
+    /**
+     * @return the total power, in watts
+     */
+    public double getTotalPower() {
+        return PowerDistributionJNI.getTotalPower(handle);
+    }
+
+    /**
+     * @return the total energy, in joules
+     */
+    public double getTotalEnergy() {
+        return PowerDistributionJNI.getTotalEnergy(handle);
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("PowerDistribution");
+        for (int i = 0; i < channelCount; i++) {
+            final int channel = i;
+            builder.addDoubleProperty("Chan" + i, () -> getCurrent(channel), null);
+        }
+        builder.addDoubleProperty("Voltage", this::getVoltage, null);
+        builder.addDoubleProperty("TotalCurrent", this::getTotalCurrent, null);
+    }
+}
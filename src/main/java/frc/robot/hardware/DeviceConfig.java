@@ -0,0 +1,149 @@
+package frc.robot.hardware;
+
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.hardware.DeviceConfigurator.ConfigStep;
+
+/**
+ * The configuration we want a device to have, as a list of settings that can
+ * be checked against the device and written one at a time.
+ *
+ * Instead of a factory reset and rewriting everything on every boot,
+ * {@link #apply()} reads the device's current configuration and compares each
+ * declared setting. Only the settings that differ are written, and when they
+ * all match, which is what usually happens, nothing is. Anything the robot
+ * depends on, including settings left at their defaults, should be declared,
+ * so no stale value can survive. The configuration is persisted once, and only
+ * if something was written.
+ */
+public class DeviceConfig implements ConfigStep {
+    // Gains read back from a device are rounded to its fixed-point format
+    private static final double TOLERANCE = 1e-3;
+
+    private final String name;
+    private ConfigStep readBack = () -> true;
+    private ConfigStep persist = () -> true;
+    private final ArrayList<Setting> settings = new ArrayList<>();
+    // Steps that always run, for settings the device doesn't keep across reboots
+    private final ArrayList<ConfigStep> alwaysSteps = new ArrayList<>();
+
+    private static class Setting {
+        final String name;
+        final BooleanSupplier matches;
+        final ConfigStep write;
+
+        Setting(String name, BooleanSupplier matches, ConfigStep write) {
+            this.name = name;
+            this.matches = matches;
+            this.write = write;
+        }
+    }
+
+    /**
+     * @param name the device's name in the startup report
+     */
+    public DeviceConfig(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the device's name in the startup report
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Set how to read the device's current configuration, for devices that read
+     * it all at once. Runs before the settings are compared.
+     *
+     * @param readBack reads the configuration
+     * @return this config, for chaining
+     */
+    public DeviceConfig readBack(ConfigStep readBack) {
+        this.readBack = readBack;
+        return this;
+    }
+
+    /**
+     * Set how to save the configuration on the device, for devices that don't
+     * save settings as they are written
+     *
+     * @param persist saves the configuration
+     * @return this config, for chaining
+     */
+    public DeviceConfig persist(ConfigStep persist) {
+        this.persist = persist;
+        return this;
+    }
+
+    /**
+     * Declare a setting
+     *
+     * @param name    the setting's name, logged when it's written
+     * @param matches whether the device already has the desired value
+     * @param write   writes the desired value
+     * @return this config, for chaining
+     */
+    public DeviceConfig add(String name, BooleanSupplier matches, ConfigStep write) {
+        settings.add(new Setting(name, matches, write));
+        return this;
+    }
+
+    /**
+     * Add a step that runs on every boot, because the device doesn't keep it
+     * across reboots
+     *
+     * @param step the configuration call
+     * @return this config, for chaining
+     */
+    public DeviceConfig always(ConfigStep step) {
+        alwaysSteps.add(step);
+        return this;
+    }
+
+    /**
+     * Read the configuration, write the settings that differ and persist them
+     *
+     * @return whether every setting now matches
+     */
+    @Override
+    public boolean apply() {
+        boolean ok = true;
+        // If the read fails we can't tell what differs, so write everything
+        boolean readOk = readBack.apply();
+        if (!readOk) {
+            DriverStation.reportWarning(name + ": couldn't read configuration, writing every setting", false);
+        }
+        StringBuilder written = new StringBuilder();
+        for (Setting setting : settings) {
+            if (readOk && setting.matches.getAsBoolean()) {
+                continue;
+            }
+            written.append(written.length() == 0 ? "" : ", ").append(setting.name);
+            ok &= setting.write.apply();
+        }
+        if (written.length() > 0) {
+            DataLogManager.log(name + ": wrote " + written);
+            ok &= persist.apply();
+        }
+        for (ConfigStep step : alwaysSteps) {
+            ok &= step.apply();
+        }
+        return ok;
+    }
+
+    /**
+     * Compare a setting read from a device with the desired value
+     *
+     * @param actual  the device's value
+     * @param desired the desired value
+     * @return whether they are equal, allowing for the device's rounding
+     */
+    public static boolean near(double actual, double desired) {
+        return Math.abs(actual - desired) <= TOLERANCE;
+    }
+}
@@ -0,0 +1,190 @@
+package frc.robot.hardware;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.ctre.phoenix.ErrorCode;
+import com.revrobotics.REVLibError;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Configures CAN devices in parallel at startup.
+ *
+ * Every configuration call is a blocking round trip on the CAN bus, and each
+ * device used to wait for the one before it. Subsystems create their devices
+ * as before, then submit the configuration calls here. Each device's steps run
+ * in order on a worker thread, alongside the other devices. A failed step is
+ * retried a few times. {@link #awaitAll()} waits for every device, up to one
+ * overall deadline, and reports how long each one took.
+ */
+public final class DeviceConfigurator {
+    // Timeout for one blocking configuration call
+    public static final int CAN_TIMEOUT_MS = 100;
+    private static final int MAX_ATTEMPTS = 3;
+    // Longest we'll wait for all devices together, so missing devices can't
+    // hold up startup
+    private static final long STARTUP_TIMEOUT_MS = 5000;
+    private static final int THREADS = 4;
+
+    private static DeviceConfigurator instance;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "DeviceConfigurator");
+        // Don't keep the program alive if a device never answers
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ArrayList<Device> devices = new ArrayList<>();
+    private final long startTime = System.nanoTime();
+
+    /**
+     * One blocking configuration call
+     */
+    @FunctionalInterface
+    public interface ConfigStep {
+        /**
+         * @return whether the device accepted the configuration
+         */
+        boolean apply();
+    }
+
+    private static class Device {
+        final String name;
+        final Future<Result> result;
+
+        Device(String name, Future<Result> result) {
+            this.name = name;
+            this.result = result;
+        }
+    }
+
+    private static class Result {
+        final double milliseconds;
+        final int retries;
+        final int failedSteps;
+
+        Result(double milliseconds, int retries, int failedSteps) {
+            this.milliseconds = milliseconds;
+            this.retries = retries;
+            this.failedSteps = failedSteps;
+        }
+    }
+
+    private DeviceConfigurator() {
+    }
+
+    /**
+     * Get the robot's device configurator
+     *
+     * @return the DeviceConfigurator instance
+     */
+    public static DeviceConfigurator getInstance() {
+        if (instance == null) {
+            instance = new DeviceConfigurator();
+        }
+        return instance;
+    }
+
+    /**
+     * Configure a device in the background. The steps run in order.
+     *
+     * @param name  the device's name in the startup report
+     * @param steps the configuration calls
+     */
+    public synchronized void submit(String name, ConfigStep... steps) {
+        devices.add(new Device(name, executor.submit(() -> configure(steps))));
+    }
+
+    /**
+     * Configure a device in the background, writing only the settings that
+     * differ from what it already has
+     *
+     * @param config the device's configuration
+     */
+    public void submit(DeviceConfig config) {
+        submit(config.getName(), config);
+    }
+
+    private static Result configure(ConfigStep[] steps) {
+        long start = System.nanoTime();
+        int retries = 0;
+        int failedSteps = 0;
+        for (ConfigStep step : steps) {
+            // Cancelled by awaitAll() after the deadline
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            int attempt = 1;
+            while (!step.apply()) {
+                if (attempt == MAX_ATTEMPTS) {
+                    failedSteps++;
+                    break;
+                }
+                attempt++;
+                retries++;
+            }
+        }
+        return new Result((System.nanoTime() - start) / 1e6, retries, failedSteps);
+    }
+
+    /**
+     * Wait for every submitted device and publish the startup report. Call once,
+     * after all subsystems are constructed. Devices still configuring at the
+     * deadline are cancelled.
+     */
+    public synchronized void awaitAll() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STARTUP_TIMEOUT_MS);
+        for (Device device : devices) {
+            String key = "Startup/" + device.name;
+            try {
+                // Zero once the deadline has passed, which only takes finished results
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                Result result = device.result.get(remaining, TimeUnit.NANOSECONDS);
+                SmartDashboard.putNumber(key + " (ms)", result.milliseconds);
+                SmartDashboard.putNumber(key + " Retries", result.retries);
+                DataLogManager.log(String.format("%s configured in %.1f ms, %d retries", device.name,
+                        result.milliseconds, result.retries));
+                if (result.failedSteps > 0) {
+                    DriverStation.reportError(device.name + ": " + result.failedSteps
+                            + " configuration steps failed", false);
+                }
+            } catch (TimeoutException e) {
+                device.result.cancel(true);
+                DriverStation.reportError(device.name + ": configuration timed out", false);
+            } catch (ExecutionException e) {
+                DriverStation.reportError(device.name + ": configuration failed: " + e.getCause(),
+                        e.getCause().getStackTrace());
+            } catch (InterruptedException e) {
+                devices.forEach(unfinished -> unfinished.result.cancel(true));
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        devices.clear();
+        SmartDashboard.putNumber("Startup/Total (ms)", (System.nanoTime() - startTime) / 1e6);
+    }
+
+    /**
+     * @param error the result of a Phoenix configuration call
+     * @return whether the call succeeded
+     */
+    public static boolean ok(ErrorCode error) {
+        return error == ErrorCode.OK;
+    }
+
+    /**
+     * @param error the result of a REVLib configuration call
+     * @return whether the call succeeded
+     */
+    public static boolean ok(REVLibError error) {
+        return error == REVLibError.kOk;
+    }
+}
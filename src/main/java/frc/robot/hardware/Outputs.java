@@ -0,0 +1,31 @@
+package frc.robot.hardware;
+
+/**
+ * A switch that turns the subsystems' outputs into no-ops.
+ *
+ * While muted, subsystem methods still do their calculations but skip every
+ * motor, solenoid and configuration write, and the conveyor leaves its intake
+ * state alone, since the beam break interrupts change it too. This lets the
+ * real commands run without touching the CAN bus or the PCM, e.g. for JIT
+ * warm-up. Only the main robot thread mutes and reads it.
+ */
+public final class Outputs {
+    private static boolean muted = false;
+
+    private Outputs() {
+    }
+
+    /**
+     * @param muted whether subsystems should skip their outputs
+     */
+    public static void setMuted(boolean muted) {
+        Outputs.muted = muted;
+    }
+
+    /**
+     * @return whether subsystems should skip their outputs
+     */
+    public static boolean isMuted() {
+        return muted;
+    }
+}
@@ -0,0 +1,54 @@
+package frc.robot.hardware;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMax.IdleMode;
+import com.revrobotics.CANSparkMax.SoftLimitDirection;
+import com.revrobotics.RelativeEncoder;
+
+/**
+ * Builds the {@link DeviceConfig} for a Spark Max.
+ *
+ * The Spark Max's parameters are read one at a time, so each setting reads its
+ * own value. Settings the robot doesn't change are compared with the factory
+ * defaults, so nothing stale can survive, and only the ones that differ are
+ * written. Written settings only survive a reboot once they are burned to
+ * flash, which happens once, after the last write.
+ */
+public final class SparkMaxConfig {
+    private SparkMaxConfig() {
+    }
+
+    /**
+     * @param name     the motor controller's name in the startup report
+     * @param motor    the motor controller to configure
+     * @param idleMode the idle mode it should have
+     * @return the motor controller's configuration, which more settings can be
+     *         added to
+     */
+    public static DeviceConfig create(String name, CANSparkMax motor, IdleMode idleMode) {
+        RelativeEncoder encoder = motor.getEncoder();
+        return new DeviceConfig(name)
+                .persist(() -> DeviceConfigurator.ok(motor.burnFlash()))
+                .add("Idle Mode", () -> motor.getIdleMode() == idleMode,
+                        () -> DeviceConfigurator.ok(motor.setIdleMode(idleMode)))
+                .add("Open Loop Ramp", () -> DeviceConfig.near(motor.getOpenLoopRampRate(), 0),
+                        () -> DeviceConfigurator.ok(motor.setOpenLoopRampRate(0)))
+                .add("Closed Loop Ramp", () -> DeviceConfig.near(motor.getClosedLoopRampRate(), 0),
+                        () -> DeviceConfigurator.ok(motor.setClosedLoopRampRate(0)))
+                .add("Voltage Compensation", () -> DeviceConfig.near(motor.getVoltageCompensationNominalVoltage(), 0),
+                        () -> DeviceConfigurator.ok(motor.disableVoltageCompensation()))
+                .add("Forward Soft Limit", () -> !motor.isSoftLimitEnabled(SoftLimitDirection.kForward),
+                        () -> DeviceConfigurator.ok(motor.enableSoftLimit(SoftLimitDirection.kForward, false)))
+                .add("Reverse Soft Limit", () -> !motor.isSoftLimitEnabled(SoftLimitDirection.kReverse),
+                        () -> DeviceConfigurator.ok(motor.enableSoftLimit(SoftLimitDirection.kReverse, false)))
+                .add("Inverted", () -> !motor.getInverted(), () -> {
+                    motor.setInverted(false);
+                    return true;
+                })
+                // Position control and logging assume the encoder reports rotations and RPM
+                .add("Position Conversion Factor", () -> DeviceConfig.near(encoder.getPositionConversionFactor(), 1),
+                        () -> DeviceConfigurator.ok(encoder.setPositionConversionFactor(1)))
+                .add("Velocity Conversion Factor", () -> DeviceConfig.near(encoder.getVelocityConversionFactor(), 1),
+                        () -> DeviceConfigurator.ok(encoder.setVelocityConversionFactor(1)));
+    }
+}
@@ -0,0 +1,118 @@
+package frc.robot.hardware;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.BaseTalon;
+
+/**
+ * A table of status frame periods for a Talon.
+ *
+ * Every status frame a Talon sends takes up CAN bandwidth whether or not we
+ * read it. Declaring the periods in one place lets us send the frames we use
+ * often and slow down everything else, and lets us estimate how much of the
+ * bus the motors use.
+ */
+public class StatusFrameSchedule {
+    // Phoenix stores frame periods in a byte, so this is the slowest allowed
+    public static final int SLOWEST_PERIOD_MS = 255;
+    private static final int CAN_TIMEOUT_MS = 100;
+    // An extended CAN frame with 8 data bytes is about 128 bits including bit stuffing
+    private static final double BITS_PER_FRAME = 128;
+    private static final double CAN_BITS_PER_SECOND = 1_000_000;
+
+    /**
+     * Main drive motors. The integrated encoder is read every loop, current is
+     * used for logging and temperature only matters over minutes.
+     */
+    public static final StatusFrameSchedule DRIVE_MAIN = new StatusFrameSchedule()
+            .set(StatusFrameEnhanced.Status_1_General, 10)
+            .set(StatusFrameEnhanced.Status_2_Feedback0, 10)
+            .set(StatusFrameEnhanced.Status_Brushless_Current, 50)
+            .set(StatusFrameEnhanced.Status_4_AinTempVbat, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_3_Quadrature, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_8_PulseWidth, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_10_MotionMagic, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_12_Feedback1, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_13_Base_PIDF0, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_14_Turn_PIDF1, SLOWEST_PERIOD_MS);
+
+    /**
+     * Follower drive motors. Their position and velocity match the main motors,
+     * so only current is kept at a useful rate.
+     */
+    public static final StatusFrameSchedule DRIVE_FOLLOWER = new StatusFrameSchedule()
+            .set(StatusFrameEnhanced.Status_1_General, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_2_Feedback0, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_Brushless_Current, 50)
+            .set(StatusFrameEnhanced.Status_4_AinTempVbat, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_3_Quadrature, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_8_PulseWidth, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_10_MotionMagic, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_12_Feedback1, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_13_Base_PIDF0, SLOWEST_PERIOD_MS)
+            .set(StatusFrameEnhanced.Status_14_Turn_PIDF1, SLOWEST_PERIOD_MS);
+
+    private final EnumMap<StatusFrameEnhanced, Integer> periods = new EnumMap<>(StatusFrameEnhanced.class);
+
+    /**
+     * Set the period of a status frame
+     *
+     * @param frame    the status frame
+     * @param periodMs the period in milliseconds
+     * @return this schedule, for chaining
+     */
+    public StatusFrameSchedule set(StatusFrameEnhanced frame, int periodMs) {
+        periods.put(frame, Math.min(periodMs, SLOWEST_PERIOD_MS));
+        return this;
+    }
+
+    /**
+     * Get the period of a status frame
+     *
+     * @param frame the status frame
+     * @return the period in milliseconds, or 0 if this schedule doesn't set it
+     */
+    public int getPeriod(StatusFrameEnhanced frame) {
+        return periods.getOrDefault(frame, 0);
+    }
+
+    /**
+     * Send the frame periods to a motor controller
+     *
+     * @param motor the motor controller to configure
+     * @return whether every frame period was accepted
+     */
+    public boolean apply(BaseTalon motor) {
+        boolean ok = true;
+        for (Map.Entry<StatusFrameEnhanced, Integer> entry : periods.entrySet()) {
+            ok &= motor.setStatusFramePeriod(entry.getKey(), entry.getValue(), CAN_TIMEOUT_MS) == ErrorCode.OK;
+        }
+        return ok;
+    }
+
+    /**
+     * Get the number of status frames per second a motor sends with this schedule
+     *
+     * @return frames per second
+     */
+    public double getFramesPerSecond() {
+        double framesPerSecond = 0;
+        for (int periodMs : periods.values()) {
+            framesPerSecond += 1000.0 / periodMs;
+        }
+        return framesPerSecond;
+    }
+
+    /**
+     * Estimate the share of a 1 Mbit/s CAN bus used by some number of frames
+     *
+     * @param framesPerSecond frames sent per second
+     * @return the bus utilization in [0, 1]
+     */
+    public static double estimateBusUtilization(double framesPerSecond) {
+        return framesPerSecond * BITS_PER_FRAME / CAN_BITS_PER_SECOND;
+    }
+}
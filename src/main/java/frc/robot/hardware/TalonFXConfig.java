@@ -0,0 +1,160 @@
+package frc.robot.hardware;
+
+import com.ctre.phoenix.motorcontrol.StatorCurrentLimitConfiguration;
+import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
+import com.ctre.phoenix.motorcontrol.can.SlotConfiguration;
+import com.ctre.phoenix.motorcontrol.can.TalonFXConfiguration;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
+
+/**
+ * Builds the {@link DeviceConfig} for a Talon FX from the Phoenix
+ * configuration we want it to have.
+ *
+ * Start from a new TalonFXConfiguration, which holds the factory defaults, and
+ * change the fields the robot uses. The Talon's configuration is read back in
+ * one call, and the settings below are compared with it: everything the robot's
+ * control loops depend on, so nothing stale can survive. Only the ones that
+ * differ are written. Talons save settings as they are written, so nothing
+ * needs to be persisted.
+ */
+public final class TalonFXConfig {
+    private static final int TIMEOUT = DeviceConfigurator.CAN_TIMEOUT_MS;
+
+    private TalonFXConfig() {
+    }
+
+    /**
+     * @param name    the motor's name in the startup report
+     * @param motor   the motor to configure
+     * @param desired the configuration it should have
+     * @param slot    the PID slot whose gains are compared
+     * @return the motor's configuration
+     */
+    public static DeviceConfig create(String name, WPI_TalonFX motor, TalonFXConfiguration desired, int slot) {
+        TalonFXConfiguration actual = new TalonFXConfiguration();
+        SlotConfiguration desiredSlot = getSlot(desired, slot);
+        SlotConfiguration actualSlot = getSlot(actual, slot);
+        return new DeviceConfig(name)
+                .readBack(() -> DeviceConfigurator.ok(motor.getAllConfigs(actual, TIMEOUT)))
+                .add("Open Loop Ramp", () -> DeviceConfig.near(actual.openloopRamp, desired.openloopRamp),
+                        () -> DeviceConfigurator.ok(motor.configOpenloopRamp(desired.openloopRamp, TIMEOUT)))
+                .add("Closed Loop Ramp", () -> DeviceConfig.near(actual.closedloopRamp, desired.closedloopRamp),
+                        () -> DeviceConfigurator.ok(motor.configClosedloopRamp(desired.closedloopRamp, TIMEOUT)))
+                .add("Peak Output Forward",
+                        () -> DeviceConfig.near(actual.peakOutputForward, desired.peakOutputForward),
+                        () -> DeviceConfigurator.ok(motor.configPeakOutputForward(desired.peakOutputForward, TIMEOUT)))
+                .add("Peak Output Reverse",
+                        () -> DeviceConfig.near(actual.peakOutputReverse, desired.peakOutputReverse),
+                        () -> DeviceConfigurator.ok(motor.configPeakOutputReverse(desired.peakOutputReverse, TIMEOUT)))
+                .add("Nominal Output Forward",
+                        () -> DeviceConfig.near(actual.nominalOutputForward, desired.nominalOutputForward),
+                        () -> DeviceConfigurator
+                                .ok(motor.configNominalOutputForward(desired.nominalOutputForward, TIMEOUT)))
+                .add("Nominal Output Reverse",
+                        () -> DeviceConfig.near(actual.nominalOutputReverse, desired.nominalOutputReverse),
+                        () -> DeviceConfigurator
+                                .ok(motor.configNominalOutputReverse(desired.nominalOutputReverse, TIMEOUT)))
+                .add("Neutral Deadband", () -> DeviceConfig.near(actual.neutralDeadband, desired.neutralDeadband),
+                        () -> DeviceConfigurator.ok(motor.configNeutralDeadband(desired.neutralDeadband, TIMEOUT)))
+                .add("Stator Current Limit", () -> matches(actual.statorCurrLimit, desired.statorCurrLimit),
+                        () -> DeviceConfigurator.ok(motor.configStatorCurrentLimit(desired.statorCurrLimit, TIMEOUT)))
+                .add("Supply Current Limit", () -> matches(actual.supplyCurrLimit, desired.supplyCurrLimit),
+                        () -> DeviceConfigurator.ok(motor.configSupplyCurrentLimit(desired.supplyCurrLimit, TIMEOUT)))
+                .add("kP", () -> DeviceConfig.near(actualSlot.kP, desiredSlot.kP),
+                        () -> DeviceConfigurator.ok(motor.config_kP(slot, desiredSlot.kP, TIMEOUT)))
+                .add("kI", () -> DeviceConfig.near(actualSlot.kI, desiredSlot.kI),
+                        () -> DeviceConfigurator.ok(motor.config_kI(slot, desiredSlot.kI, TIMEOUT)))
+                .add("kD", () -> DeviceConfig.near(actualSlot.kD, desiredSlot.kD),
+                        () -> DeviceConfigurator.ok(motor.config_kD(slot, desiredSlot.kD, TIMEOUT)))
+                .add("kF", () -> DeviceConfig.near(actualSlot.kF, desiredSlot.kF),
+                        () -> DeviceConfigurator.ok(motor.config_kF(slot, desiredSlot.kF, TIMEOUT)))
+                .add("Integral Zone", () -> DeviceConfig.near(actualSlot.integralZone, desiredSlot.integralZone),
+                        () -> DeviceConfigurator.ok(motor.config_IntegralZone(slot, desiredSlot.integralZone, TIMEOUT)))
+                .add("Closed Loop Peak Output",
+                        () -> DeviceConfig.near(actualSlot.closedLoopPeakOutput, desiredSlot.closedLoopPeakOutput),
+                        () -> DeviceConfigurator
+                                .ok(motor.configClosedLoopPeakOutput(slot, desiredSlot.closedLoopPeakOutput, TIMEOUT)))
+                .add("Voltage Compensation",
+                        () -> DeviceConfig.near(actual.voltageCompSaturation, desired.voltageCompSaturation),
+                        () -> DeviceConfigurator
+                                .ok(motor.configVoltageCompSaturation(desired.voltageCompSaturation, TIMEOUT)))
+                .add("Feedback Sensor",
+                        () -> actual.primaryPID.selectedFeedbackSensor == desired.primaryPID.selectedFeedbackSensor
+                                && DeviceConfig.near(actual.primaryPID.selectedFeedbackCoefficient,
+                                        desired.primaryPID.selectedFeedbackCoefficient),
+                        () -> DeviceConfigurator.ok(motor.configSelectedFeedbackSensor(
+                                desired.primaryPID.selectedFeedbackSensor, 0, TIMEOUT))
+                                && DeviceConfigurator.ok(motor.configSelectedFeedbackCoefficient(
+                                        desired.primaryPID.selectedFeedbackCoefficient, 0, TIMEOUT)))
+                .add("Velocity Measurement",
+                        () -> actual.velocityMeasurementPeriod == desired.velocityMeasurementPeriod
+                                && actual.velocityMeasurementWindow == desired.velocityMeasurementWindow,
+                        () -> DeviceConfigurator.ok(
+                                motor.configVelocityMeasurementPeriod(desired.velocityMeasurementPeriod, TIMEOUT))
+                                && DeviceConfigurator.ok(motor.configVelocityMeasurementWindow(
+                                        desired.velocityMeasurementWindow, TIMEOUT)))
+                .add("Forward Soft Limit",
+                        () -> actual.forwardSoftLimitEnable == desired.forwardSoftLimitEnable
+                                && DeviceConfig.near(actual.forwardSoftLimitThreshold,
+                                        desired.forwardSoftLimitThreshold),
+                        () -> DeviceConfigurator.ok(
+                                motor.configForwardSoftLimitThreshold(desired.forwardSoftLimitThreshold, TIMEOUT))
+                                && DeviceConfigurator.ok(
+                                        motor.configForwardSoftLimitEnable(desired.forwardSoftLimitEnable, TIMEOUT)))
+                .add("Reverse Soft Limit",
+                        () -> actual.reverseSoftLimitEnable == desired.reverseSoftLimitEnable
+                                && DeviceConfig.near(actual.reverseSoftLimitThreshold,
+                                        desired.reverseSoftLimitThreshold),
+                        () -> DeviceConfigurator.ok(
+                                motor.configReverseSoftLimitThreshold(desired.reverseSoftLimitThreshold, TIMEOUT))
+                                && DeviceConfigurator.ok(
+                                        motor.configReverseSoftLimitEnable(desired.reverseSoftLimitEnable, TIMEOUT)))
+                .add("Forward Limit Switch",
+                        () -> actual.forwardLimitSwitchSource == desired.forwardLimitSwitchSource
+                                && actual.forwardLimitSwitchNormal == desired.forwardLimitSwitchNormal,
+                        () -> DeviceConfigurator.ok(motor.configForwardLimitSwitchSource(
+                                desired.forwardLimitSwitchSource, desired.forwardLimitSwitchNormal, TIMEOUT)))
+                .add("Reverse Limit Switch",
+                        () -> actual.reverseLimitSwitchSource == desired.reverseLimitSwitchSource
+                                && actual.reverseLimitSwitchNormal == desired.reverseLimitSwitchNormal,
+                        () -> DeviceConfigurator.ok(motor.configReverseLimitSwitchSource(
+                                desired.reverseLimitSwitchSource, desired.reverseLimitSwitchNormal, TIMEOUT)))
+                .add("Motion Magic",
+                        () -> DeviceConfig.near(actual.motionCruiseVelocity, desired.motionCruiseVelocity)
+                                && DeviceConfig.near(actual.motionAcceleration, desired.motionAcceleration)
+                                && actual.motionCurveStrength == desired.motionCurveStrength,
+                        () -> DeviceConfigurator.ok(
+                                motor.configMotionCruiseVelocity(desired.motionCruiseVelocity, TIMEOUT))
+                                && DeviceConfigurator.ok(
+                                        motor.configMotionAcceleration(desired.motionAcceleration, TIMEOUT))
+                                && DeviceConfigurator.ok(
+                                        motor.configMotionSCurveStrength(desired.motionCurveStrength, TIMEOUT)));
+    }
+
+    private static SlotConfiguration getSlot(TalonFXConfiguration config, int slot) {
+        switch (slot) {
+            case 1:
+                return config.slot1;
+            case 2:
+                return config.slot2;
+            case 3:
+                return config.slot3;
+            default:
+                return config.slot0;
+        }
+    }
+
+    private static boolean matches(StatorCurrentLimitConfiguration actual, StatorCurrentLimitConfiguration desired) {
+        return actual.enable == desired.enable
+                && DeviceConfig.near(actual.currentLimit, desired.currentLimit)
+                && DeviceConfig.near(actual.triggerThresholdCurrent, desired.triggerThresholdCurrent)
+                && DeviceConfig.near(actual.triggerThresholdTime, desired.triggerThresholdTime);
+    }
+
+    private static boolean matches(SupplyCurrentLimitConfiguration actual, SupplyCurrentLimitConfiguration desired) {
+        return actual.enable == desired.enable
+                && DeviceConfig.near(actual.currentLimit, desired.currentLimit)
+                && DeviceConfig.near(actual.triggerThresholdCurrent, desired.triggerThresholdCurrent)
+                && DeviceConfig.near(actual.triggerThresholdTime, desired.triggerThresholdTime);
+    }
+}
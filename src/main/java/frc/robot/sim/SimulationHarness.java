@@ -0,0 +1,155 @@
+package frc.robot.sim;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.CTREPCMSim;
+import edu.wpi.first.wpilibj.simulation.DIOSim;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Robot;
+import frc.robot.RobotContainer;
+import frc.robot.subsystems.ConveyorSubsystem;
+import frc.robot.subsystems.IntakeArmsSubsystem;
+
+/**
+ * Runs the whole robot headless against the WPILib HAL simulation.
+ *
+ * Time is paused and only moves when the harness steps the robot, so runs are
+ * deterministic and go as fast as the code allows. Tests can script the
+ * driver's controller and the beam break sensors, and check the solenoids.
+ *
+ * The robot owns HAL resources that can't be allocated twice, so only create
+ * one harness per JVM.
+ */
+public class SimulationHarness implements AutoCloseable {
+    public static final double LOOP_PERIOD_SECONDS = 0.02;
+
+    private final Robot robot;
+    private final XboxControllerSim driveController = new XboxControllerSim(0);
+    private final DIOSim intakeSensor = new DIOSim(ConveyorSubsystem.INTAKE_SENSOR_CHANNEL);
+    private final DIOSim conveyorSensor = new DIOSim(ConveyorSubsystem.CONVEYOR_SENSOR_CHANNEL);
+    private final CTREPCMSim armPneumatics = new CTREPCMSim(IntakeArmsSubsystem.pcmCANID);
+
+    public SimulationHarness() {
+        HAL.initialize(500, 0);
+        SimHooks.pauseTiming();
+        DriverStationSim.resetData();
+        DriverStationSim.setDsAttached(true);
+
+        robot = new Robot();
+        robot.robotInit();
+        robot.simulationInit();
+
+        // Beam breaks read true when nothing is blocking them
+        setIntakeSensorBlocked(false);
+        setConveyorSensorBlocked(false);
+        disable();
+    }
+
+    /**
+     * Disable the robot
+     */
+    public void disable() {
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+    }
+
+    /**
+     * Enable the robot in teleop
+     */
+    public void enableTeleop() {
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.setTest(false);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+    }
+
+    /**
+     * Enable the robot in autonomous
+     *
+     * @param alliance the alliance to play for
+     */
+    public void enableAutonomous(Alliance alliance) {
+        DriverStationSim.setAllianceStationId(alliance == Alliance.Red ? AllianceStationID.Red1 : AllianceStationID.Blue1);
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setTest(false);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+    }
+
+    /**
+     * Run one 20 ms robot loop, then advance simulated time to the next loop
+     */
+    public void step() {
+        robot.runLoopOnce();
+        SimHooks.stepTiming(LOOP_PERIOD_SECONDS);
+    }
+
+    /**
+     * Run robot loops for some amount of simulated time
+     *
+     * @param seconds simulated time to run for
+     */
+    public void run(double seconds) {
+        int loops = (int) Math.round(seconds / LOOP_PERIOD_SECONDS);
+        for (int i = 0; i < loops; i++) {
+            step();
+        }
+    }
+
+    /**
+     * @return the simulated time, in seconds
+     */
+    public double getTime() {
+        return Timer.getFPGATimestamp();
+    }
+
+    /**
+     * Get the driver's controller. Changes are seen by the robot on the next step.
+     *
+     * @return the simulated drive controller
+     */
+    public XboxControllerSim getDriveController() {
+        return driveController;
+    }
+
+    /**
+     * @param blocked whether a game piece is in front of the intake sensor
+     */
+    public void setIntakeSensorBlocked(boolean blocked) {
+        intakeSensor.setValue(!blocked);
+    }
+
+    /**
+     * @param blocked whether a game piece is in front of the conveyor sensor
+     */
+    public void setConveyorSensorBlocked(boolean blocked) {
+        conveyorSensor.setValue(!blocked);
+    }
+
+    /**
+     * @return whether the intake arm solenoid is lowering the arms
+     */
+    public boolean isArmLowered() {
+        return armPneumatics.getSolenoidOutput(IntakeArmsSubsystem.armSolenoidChannel);
+    }
+
+    public Robot getRobot() {
+        return robot;
+    }
+
+    public RobotContainer getRobotContainer() {
+        return robot.getRobotContainer();
+    }
+
+    @Override
+    public void close() {
+        disable();
+        CommandScheduler.getInstance().cancelAll();
+        SimHooks.resumeTiming();
+    }
+}
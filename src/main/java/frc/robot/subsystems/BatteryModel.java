@@ -0,0 +1,127 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * Estimates the battery's internal resistance and open-circuit voltage from
+ * voltage and current samples.
+ *
+ * The voltage at the roboRIO is roughly the open-circuit voltage minus the
+ * current times the battery and wiring resistance. The resistance is the slope
+ * of voltage against current, found with an exponentially weighted linear
+ * regression so it follows the battery as it drains. The open-circuit voltage
+ * comes from the filtered means, not the latest sample, so a sudden sag shows
+ * up as more current rather than as a lower battery.
+ *
+ * The current's recent rise is also tracked, so we can predict the current a
+ * few cycles ahead and cut the loads before the voltage gets near the limit,
+ * not after it has already dropped below it.
+ */
+class BatteryModel {
+    // A typical competition battery and wiring, used until we have measurements
+    private static final double DEFAULT_RESISTANCE = 0.020; // ohms
+    private static final double MIN_RESISTANCE = 0.010;
+    private static final double MAX_RESISTANCE = 0.060;
+    // Weight of each new sample. 0.02 at 50 Hz averages over about a second.
+    private static final double ALPHA = 0.02;
+    // The slope is only trusted when the current has varied this much, in A^2
+    private static final double MIN_CURRENT_VARIANCE = 25;
+    // Weight of each new sample in the current trend, which follows faster
+    private static final double TREND_ALPHA = 0.2;
+
+    private double meanCurrent = 0;
+    private double meanVoltage = 0;
+    private double currentVariance = 0;
+    private double covariance = 0;
+    private boolean initialized = false;
+    private double lastCurrent = 0;
+    // Filtered change in current per sample, in amps
+    private double currentTrend = 0;
+
+    private double resistance = DEFAULT_RESISTANCE;
+    private double openCircuitVoltage = 12;
+
+    /**
+     * Add a sample
+     *
+     * @param voltage the battery voltage, in volts
+     * @param current the total current drawn, in amps
+     */
+    void update(double voltage, double current) {
+        if (!initialized) {
+            meanCurrent = current;
+            meanVoltage = voltage;
+            lastCurrent = current;
+            initialized = true;
+        }
+        currentTrend += TREND_ALPHA * (current - lastCurrent - currentTrend);
+        lastCurrent = current;
+        double currentDelta = current - meanCurrent;
+        double voltageDelta = voltage - meanVoltage;
+        meanCurrent += ALPHA * currentDelta;
+        meanVoltage += ALPHA * voltageDelta;
+        currentVariance = (1 - ALPHA) * (currentVariance + ALPHA * currentDelta * currentDelta);
+        covariance = (1 - ALPHA) * (covariance + ALPHA * currentDelta * voltageDelta);
+
+        if (currentVariance > MIN_CURRENT_VARIANCE) {
+            // Voltage falls as current rises, so the slope is negative
+            resistance = MathUtil.clamp(-covariance / currentVariance, MIN_RESISTANCE, MAX_RESISTANCE);
+        }
+        openCircuitVoltage = meanVoltage + resistance * meanCurrent;
+    }
+
+    /**
+     * @return the estimated resistance, in ohms
+     */
+    double getResistance() {
+        return resistance;
+    }
+
+    /**
+     * @return the estimated open-circuit voltage, in volts
+     */
+    double getOpenCircuitVoltage() {
+        return openCircuitVoltage;
+    }
+
+    /**
+     * @param current a total current draw, in amps
+     * @return the battery voltage expected at that current
+     */
+    double predictVoltage(double current) {
+        return openCircuitVoltage - resistance * current;
+    }
+
+    /**
+     * @param samplesAhead how many samples ahead to look
+     * @return the current expected if it keeps rising as it has been. A
+     *         falling current is taken as staying where it is.
+     */
+    double predictCurrent(int samplesAhead) {
+        return lastCurrent + Math.max(0, currentTrend) * samplesAhead;
+    }
+
+    /**
+     * @param minVoltage the lowest acceptable battery voltage
+     * @return the most total current that keeps the voltage above minVoltage
+     */
+    double getMaxCurrent(double minVoltage) {
+        return Math.max(0, (openCircuitVoltage - minVoltage) / resistance);
+    }
+
+    /**
+     * Get the fraction of the loads' current the battery can supply a few
+     * samples from now without falling below a voltage
+     *
+     * @param minVoltage   the lowest acceptable battery voltage
+     * @param samplesAhead how many samples ahead to look
+     * @return the fraction, or 1 if the predicted voltage stays above minVoltage
+     */
+    double getAllowedFraction(double minVoltage, int samplesAhead) {
+        double predictedCurrent = predictCurrent(samplesAhead);
+        if (predictedCurrent <= 0 || predictVoltage(predictedCurrent) >= minVoltage) {
+            return 1;
+        }
+        return getMaxCurrent(minVoltage) / predictedCurrent;
+    }
+}
@@ -0,0 +1,66 @@
+package frc.robot.subsystems;
+
+/**
+ * A fixed window of current samples for every power distribution channel.
+ *
+ * The samples are kept in one primitive array, indexed by sample then channel,
+ * so adding a cycle copies one row and nothing is allocated.
+ */
+class ChannelCurrentHistory {
+    private final int channels;
+    private final int window;
+    private final double[] samples;
+    private int next = 0;
+    private int count = 0;
+
+    /**
+     * @param channels the number of channels
+     * @param window   the number of samples kept per channel
+     */
+    ChannelCurrentHistory(int channels, int window) {
+        this.channels = channels;
+        this.window = window;
+        samples = new double[channels * window];
+    }
+
+    /**
+     * Add one cycle's currents, replacing the oldest sample
+     *
+     * @param currents the current of each channel, in amps
+     */
+    void add(double[] currents) {
+        System.arraycopy(currents, 0, samples, next * channels, channels);
+        next = (next + 1) % window;
+        if (count < window) {
+            count++;
+        }
+    }
+
+    /**
+     * @param channel the channel
+     * @return the RMS current over the window, in amps, or 0 with no samples
+     */
+    double getRms(int channel) {
+        if (count == 0) {
+            return 0;
+        }
+        double sumOfSquares = 0;
+        for (int i = 0; i < count; i++) {
+            double current = samples[i * channels + channel];
+            sumOfSquares += current * current;
+        }
+        return Math.sqrt(sumOfSquares / count);
+    }
+
+    /**
+     * @param channel the channel
+     * @return the highest current in the window, in amps
+     */
+    double getPeak(int channel) {
+        double peak = 0;
+        for (int i = 0; i < count; i++) {
+            peak = Math.max(peak, samples[i * channels + channel]);
+        }
+        return peak;
+    }
+}
@@ -1,28 +1,149 @@
 package frc.robot.subsystems;
 
+import com.revrobotics.CANSparkMax.ControlType;
+import com.revrobotics.CANSparkMax.IdleMode;
 import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkMaxPIDController;
 
+import java.util.concurrent.ArrayBlockingQueue;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.wpilibj.AsynchronousInterrupt;
+import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.telemetry.LoopProfiler;
+import frc.robot.hardware.DeviceConfig;
+import frc.robot.hardware.DeviceConfigurator;
+import frc.robot.hardware.Outputs;
+import frc.robot.hardware.SparkMaxConfig;
 import frc.robot.hardware.WPI_CANSparkMax;
 
+/**
+ * The conveyor, with beam break sensors at the intake and on the conveyor.
+ *
+ * The sensors are watched with interrupts instead of being polled once a
+ * cycle. When a piece breaks a beam while we are acquiring it, the interrupt
+ * thread stops the conveyor (and anything else registered with
+ * {@link #startAcquiring(Runnable)}) right away, instead of up to 20 ms later.
+ * Every edge is queued with its FPGA timestamp and logged in periodic().
+ *
+ * Pieces can also be moved an exact distance with the Spark Max's position PID
+ * on the NEO's encoder, see {@link #moveBy(double)}.
+ */
 public class ConveyorSubsystem extends SubsystemBase {
 
+    public enum IntakeState {
+        // Nothing in the robot
+        EMPTY,
+        // Running the intake until a piece breaks a beam
+        ACQUIRING,
+        // Holding a piece. Back to EMPTY when both beams clear, except while indexing it.
+        INDEXED,
+        // Pushing a piece out, until both beams are clear
+        EJECTING
+    }
+
+    /**
+     * A beam break sensor changing state
+     */
+    private static class SensorEvent {
+        final BooleanLogEntry log;
+        final boolean blocked;
+        final long timestampMicros;
+
+        SensorEvent(BooleanLogEntry log, boolean blocked, double timestampSeconds) {
+            this.log = log;
+            this.blocked = blocked;
+            this.timestampMicros = (long) (timestampSeconds * 1e6);
+        }
+    }
+
     private WPI_CANSparkMax conveyorMotor;
+    // Fraction of full output allowed by the power manager
+    private double outputScale = 1;
     private static final int CONVEYOR_MOTOR_CAN_ID = 5; // CAN ID should be 5, it may be different as a result of testing
-    private static final int INTAKE_SENSOR_CHANNEL = 0;
+    public static final int INTAKE_SENSOR_CHANNEL = 0;
     private final DigitalInput intakeSensor;
-    private static final int CONVEYOR_SENSOR_CHANNEL = 2;
+    public static final int CONVEYOR_SENSOR_CHANNEL = 2;
     private final DigitalInput conveyorSensor;
+    private final int profilerSlot;
+
+    // Position control, in motor rotations (the encoder's default unit)
+    private final RelativeEncoder encoder;
+    private final SparkMaxPIDController pidController;
+    private static final int POSITION_SLOT = 0;
+    private static final double POSITION_KP = 0.1; // output per rotation of error
+    // Same as the open-loop intake speed, so pieces move the way they used to
+    private static final double POSITION_MAX_OUTPUT = 0.3;
+    private static final double POSITION_TOLERANCE = 0.25; // rotations
+    private static final double VELOCITY_TOLERANCE = 100; // RPM
+    private double targetPosition = 0;
+    // Read by the interrupt threads
+    private volatile boolean positionControl = false;
+
+    // REVLib doesn't simulate the Spark Max's PID or encoder, so in simulation
+    // the motor is modelled as running at its output times free speed
+    private static final double NEO_FREE_SPEED = 5676; // RPM
+    private static final double SIM_PERIOD_SECONDS = 0.02;
+    private double simPosition = 0; // rotations
+    private double simVelocity = 0; // RPM
+
+    // Interrupts on both edges of each beam break
+    private AsynchronousInterrupt intakeInterrupt;
+    private AsynchronousInterrupt conveyorInterrupt;
+    // Edges from the interrupt threads, waiting to be logged. Dropped if full.
+    private final ArrayBlockingQueue<SensorEvent> events = new ArrayBlockingQueue<>(64);
+    private final BooleanLogEntry intakeSensorLog = new BooleanLogEntry(DataLogManager.getLog(),
+            "Conveyor/Intake Sensor Blocked");
+    private final BooleanLogEntry conveyorSensorLog = new BooleanLogEntry(DataLogManager.getLog(),
+            "Conveyor/Conveyor Sensor Blocked");
+
+    // Changed by the interrupt threads and the main thread, always while holding this
+    private volatile IntakeState intakeState = IntakeState.EMPTY;
+    // Stops the other intake motors when a piece is acquired
+    private Runnable onAcquired = null;
+    // FPGA time of the last sensor edge that changed the state, in seconds
+    private volatile double stateChangeTimestamp = 0;
 
     public ConveyorSubsystem() {
+        conveyorMotor = new WPI_CANSparkMax(CONVEYOR_MOTOR_CAN_ID, MotorType.kBrushless);
+        encoder = conveyorMotor.getEncoder();
+        pidController = conveyorMotor.getPIDController();
+        DeviceConfig config = SparkMaxConfig.create("Conveyor", conveyorMotor, IdleMode.kCoast)
+                .add("kP", () -> DeviceConfig.near(pidController.getP(POSITION_SLOT), POSITION_KP),
+                        () -> DeviceConfigurator.ok(pidController.setP(POSITION_KP, POSITION_SLOT)))
+                .add("kI", () -> DeviceConfig.near(pidController.getI(POSITION_SLOT), 0),
+                        () -> DeviceConfigurator.ok(pidController.setI(0, POSITION_SLOT)))
+                .add("kD", () -> DeviceConfig.near(pidController.getD(POSITION_SLOT), 0),
+                        () -> DeviceConfigurator.ok(pidController.setD(0, POSITION_SLOT)))
+                .add("kFF", () -> DeviceConfig.near(pidController.getFF(POSITION_SLOT), 0),
+                        () -> DeviceConfigurator.ok(pidController.setFF(0, POSITION_SLOT)))
+                .add("Output Range",
+                        () -> DeviceConfig.near(pidController.getOutputMin(POSITION_SLOT), -POSITION_MAX_OUTPUT)
+                                && DeviceConfig.near(pidController.getOutputMax(POSITION_SLOT), POSITION_MAX_OUTPUT),
+                        () -> DeviceConfigurator.ok(pidController.setOutputRange(-POSITION_MAX_OUTPUT,
+                                POSITION_MAX_OUTPUT, POSITION_SLOT)));
+        DeviceConfigurator.getInstance().submit(config);
+
         intakeSensor = new DigitalInput(INTAKE_SENSOR_CHANNEL);
         conveyorSensor = new DigitalInput(CONVEYOR_SENSOR_CHANNEL);
-        conveyorMotor = new WPI_CANSparkMax(CONVEYOR_MOTOR_CAN_ID, MotorType.kBrushless);
-        conveyorMotor.restoreFactoryDefaults();
+        resetIntakeState();
+        intakeInterrupt = new AsynchronousInterrupt(intakeSensor,
+                (rising, falling) -> onSensorEdge(intakeInterrupt, intakeSensorLog, rising, falling));
+        conveyorInterrupt = new AsynchronousInterrupt(conveyorSensor,
+                (rising, falling) -> onSensorEdge(conveyorInterrupt, conveyorSensorLog, rising, falling));
+        intakeInterrupt.setInterruptEdges(true, true);
+        conveyorInterrupt.setInterruptEdges(true, true);
+        intakeInterrupt.enable();
+        conveyorInterrupt.enable();
         addChild("Conveyor motor", conveyorMotor);
         initializeSmartDashboard();
+        profilerSlot = LoopProfiler.getInstance().register(getName());
     }
 
     private void initializeSmartDashboard() {
@@ -31,7 +152,154 @@ public class ConveyorSubsystem extends SubsystemBase {
 
     @Override
     public void periodic() {
+        LoopProfiler.getInstance().start(profilerSlot);
         SmartDashboard.putBoolean("isConveyorEmpty", isIntakeSensor());
+        SensorEvent event;
+        while ((event = events.poll()) != null) {
+            event.log.append(event.blocked, event.timestampMicros);
+        }
+        LoopProfiler.getInstance().stop(profilerSlot);
+    }
+
+    @Override
+    public void simulationPeriodic() {
+        double output = positionControl
+                ? MathUtil.clamp(POSITION_KP * (targetPosition - simPosition), -POSITION_MAX_OUTPUT,
+                        POSITION_MAX_OUTPUT)
+                : conveyorMotor.get();
+        simVelocity = output * NEO_FREE_SPEED;
+        simPosition += simVelocity / 60 * SIM_PERIOD_SECONDS;
+    }
+
+    /**
+     * Handle a beam break edge. Runs on the sensor's interrupt thread.
+     * The sensors read false when the beam is blocked.
+     */
+    private void onSensorEdge(AsynchronousInterrupt interrupt, BooleanLogEntry log, boolean rising, boolean falling) {
+        if (falling) {
+            double timestamp = interrupt.getFallingTimestamp();
+            onPieceDetected(timestamp);
+            events.offer(new SensorEvent(log, true, timestamp));
+        }
+        if (rising) {
+            double timestamp = interrupt.getRisingTimestamp();
+            onBeamsCleared(timestamp);
+            events.offer(new SensorEvent(log, false, timestamp));
+        }
+    }
+
+    private synchronized void onPieceDetected(double timestamp) {
+        if (intakeState == IntakeState.ACQUIRING) {
+            conveyorMotor.stopMotor();
+            if (onAcquired != null) {
+                onAcquired.run();
+            }
+        }
+        if (intakeState != IntakeState.EJECTING && intakeState != IntakeState.INDEXED) {
+            intakeState = IntakeState.INDEXED;
+            stateChangeTimestamp = timestamp;
+        }
+    }
+
+    private synchronized void onBeamsCleared(double timestamp) {
+        // The piece has been ejected or scored. Indexing moves a piece we're
+        // holding off the sensors on purpose.
+        if (intakeState != IntakeState.ACQUIRING && !(intakeState == IntakeState.INDEXED && positionControl)
+                && intakeSensor.get() && conveyorSensor.get()) {
+            intakeState = IntakeState.EMPTY;
+            stateChangeTimestamp = timestamp;
+        }
+    }
+
+    /**
+     * Start acquiring a piece. The conveyor stops as soon as a piece breaks
+     * either beam. Does nothing if we already have a piece.
+     * 
+     * @param stopOthers stops the other intake motors when a piece is acquired.
+     *                   Called from an interrupt thread.
+     */
+    public synchronized void startAcquiring(Runnable stopOthers) {
+        if (Outputs.isMuted() || intakeState == IntakeState.INDEXED) {
+            return;
+        }
+        onAcquired = stopOthers;
+        intakeState = IntakeState.ACQUIRING;
+    }
+
+    /**
+     * Run the conveyor and the other intake motors, unless a piece has already
+     * been acquired. Holds the same lock as the sensor interrupts, so they
+     * can't stop the motors between the check and the set.
+     *
+     * @param speed     the conveyor speed in [-1.0, 1.0]
+     * @param runOthers runs the other intake motors
+     * @return whether we are still acquiring, so the motors were run
+     */
+    public synchronized boolean runIfAcquiring(double speed, Runnable runOthers) {
+        if (intakeState != IntakeState.ACQUIRING) {
+            return false;
+        }
+        setSpeed(speed);
+        runOthers.run();
+        return true;
+    }
+
+    /**
+     * Stop acquiring without a piece, e.g. when the command is interrupted
+     */
+    public synchronized void cancelAcquiring() {
+        if (Outputs.isMuted()) {
+            return;
+        }
+        if (intakeState == IntakeState.ACQUIRING) {
+            intakeState = IntakeState.EMPTY;
+        }
+        onAcquired = null;
+    }
+
+    /**
+     * Start ejecting the piece. The state goes back to EMPTY once both beams
+     * are clear. Call {@link #resetIntakeState()} when ejecting stops, in case
+     * they never cleared or were clear to begin with.
+     */
+    public synchronized void startEjecting() {
+        if (Outputs.isMuted()) {
+            return;
+        }
+        onAcquired = null;
+        intakeState = IntakeState.EJECTING;
+    }
+
+    /**
+     * Set the intake state from the sensors alone: INDEXED if either beam is
+     * blocked, otherwise EMPTY
+     */
+    public synchronized void resetIntakeState() {
+        if (Outputs.isMuted()) {
+            return;
+        }
+        onAcquired = null;
+        intakeState = (!intakeSensor.get() || !conveyorSensor.get()) ? IntakeState.INDEXED : IntakeState.EMPTY;
+    }
+
+    /**
+     * Get when a beam break last changed the intake state, e.g. when the piece
+     * being acquired arrived
+     * 
+     * @return the interrupt's FPGA timestamp, in seconds
+     */
+    public double getStateChangeTimestamp() {
+        return stateChangeTimestamp;
+    }
+
+    /**
+     * Get the intake state. Updated by the sensor interrupts, so it can change
+     * between cycles.
+     * 
+     * @return the intake state
+     */
+    public IntakeState getIntakeState() {
+        return intakeState;
     }
 
     /**
@@ -39,13 +307,73 @@ public class ConveyorSubsystem extends SubsystemBase {
      * @param speed the speed in [-1.0, 1.0]
      */
     public void setSpeed(double speed) {
-        conveyorMotor.set(speed);
+        if (Outputs.isMuted()) {
+            return;
+        }
+        positionControl = false;
+        conveyorMotor.set(speed * outputScale);
+    }
+
+    /**
+     * Move the conveyor a set distance with the Spark Max's position PID.
+     * Check {@link #isAtTarget()} to see when it's done.
+     * 
+     * @param rotations the distance in motor rotations, with the same sign as
+     *                  {@link #setSpeed(double)}
+     */
+    public void moveBy(double rotations) {
+        if (Outputs.isMuted()) {
+            return;
+        }
+        targetPosition = getPosition() + rotations;
+        positionControl = true;
+        pidController.setReference(targetPosition, ControlType.kPosition, POSITION_SLOT);
+    }
+
+    /**
+     * @return whether the conveyor has reached the target from
+     *         {@link #moveBy(double)} and stopped
+     */
+    public boolean isAtTarget() {
+        return positionControl && Math.abs(getPosition() - targetPosition) < POSITION_TOLERANCE
+                && Math.abs(getVelocity()) < VELOCITY_TOLERANCE;
+    }
+
+    /**
+     * @return the conveyor motor's position, in rotations
+     */
+    public double getPosition() {
+        return RobotBase.isSimulation() ? simPosition : encoder.getPosition();
+    }
+
+    private double getVelocity() {
+        return RobotBase.isSimulation() ? simVelocity : encoder.getVelocity();
+    }
+
+    /**
+     * Scale every speed set from now on, to protect the battery voltage
+     * @param scale the fraction of full output to allow, in (0, 1]
+     */
+    public void setOutputScale(double scale) {
+        outputScale = scale;
     }
 
     public void stop() {
+        if (Outputs.isMuted()) {
+            return;
+        }
+        positionControl = false;
         conveyorMotor.stopMotor();
     }
 
+    /**
+     * @return the speed last set with {@link #setSpeed(double)}, or 0 once
+     *         stopped
+     */
+    public double getSpeed() {
+        return conveyorMotor.get();
+    }
+
     /**
      * Get the intake sensor status
      * @return whether something is in the intake
@@ -8,13 +8,25 @@ public class CoolingMotorSubsystem extends SubsystemBase {
     private final Solenoid coolingSolenoid;
     public static final int coolingSolenoidChannel = 6;
     public static final int pcmCANID = 11;
+    // Estimated free air per burst of cooling. Measure on the robot.
+    private static final double COOLING_LITERS_PER_ACTUATION = 0.5;
+    private final PneumaticsSubsystem pneumatics;
+    private final int airSlot;
 
-    public CoolingMotorSubsystem() {
+    /**
+     * @param pneumatics the pneumatics subsystem, which tracks the cooling air use
+     */
+    public CoolingMotorSubsystem(PneumaticsSubsystem pneumatics) {
         coolingSolenoid = new Solenoid(CoolingMotorSubsystem.pcmCANID, PneumaticsModuleType.CTREPCM,
                 CoolingMotorSubsystem.coolingSolenoidChannel);
+        this.pneumatics = pneumatics;
+        airSlot = pneumatics.registerSolenoid("Cooling", COOLING_LITERS_PER_ACTUATION);
     }
 
     public void enable() {
+        if (!coolingSolenoid.get()) {
+            pneumatics.recordActuation(airSlot);
+        }
         coolingSolenoid.set(true);
     }
 
@@ -0,0 +1,169 @@
+package frc.robot.subsystems;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveOdometry;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+
+/**
+ * Reads the drive motors on a background thread so CAN reads don't stretch the
+ * main robot loop.
+ *
+ * Samples are handed to the main thread through three preallocated
+ * {@link DriveState}s: the sampler fills one, the main thread reads another and
+ * the third holds the newest finished sample. Swapping buffers is a single
+ * atomic exchange, so neither side ever waits for the other. There must be only
+ * one reading thread, which is the main robot thread.
+ *
+ * The sampler also runs the drivetrain odometry at its own rate and records
+ * each pose in a {@link PoseHistory}. Heading comes from the gyro if there is
+ * one, otherwise from the difference between the two sides' distances.
+ */
+class DriveSampler {
+    // 200 Hz, faster than the 50 Hz main loop
+    private static final double PERIOD_SECONDS = 0.005;
+    // Temperature frames are slow, so only read temperatures every 250 ms
+    private static final int TEMPERATURE_PERIOD_SAMPLES = 50;
+    // Set on the shared buffer index when the reader hasn't taken it yet
+    private static final int NEW_SAMPLE = 4;
+    private static final int INDEX_MASK = 3;
+
+    // Keep 1.5 seconds of poses
+    private static final int POSE_HISTORY_SIZE = 300;
+
+    private final WPI_TalonFX[] motors;
+    private final double trackWidth;
+    private final Gyro gyro;
+    private final DifferentialDriveOdometry odometry;
+    private final PoseHistory poseHistory = new PoseHistory(POSE_HISTORY_SIZE);
+    // Pose requested by the main thread, applied by the sampler thread
+    private final AtomicReference<Pose2d> pendingReset = new AtomicReference<>();
+    private final DriveState[] buffers = { new DriveState(), new DriveState(), new DriveState() };
+    private final AtomicInteger shared = new AtomicInteger(1);
+    private final Notifier notifier;
+
+    // Only touched by the sampler thread
+    private int back = 0;
+    private int samplesUntilTemperature = 0;
+    private final double[] temperature = new double[DriveState.MOTOR_COUNT];
+
+    // Only touched by the reader
+    private int front = 2;
+
+    /**
+     * @param leftMain      the left main motor
+     * @param leftFollower  the left follower motor
+     * @param rightMain     the right main motor
+     * @param rightFollower the right follower motor
+     * @param trackWidth    the distance between the left and right wheels, in meters
+     * @param gyro          the robot's gyro, or null to estimate heading from the encoders
+     */
+    DriveSampler(WPI_TalonFX leftMain, WPI_TalonFX leftFollower, WPI_TalonFX rightMain, WPI_TalonFX rightFollower,
+            double trackWidth, Gyro gyro) {
+        motors = new WPI_TalonFX[DriveState.MOTOR_COUNT];
+        motors[DriveState.LEFT_MAIN] = leftMain;
+        motors[DriveState.LEFT_FOLLOWER] = leftFollower;
+        motors[DriveState.RIGHT_MAIN] = rightMain;
+        motors[DriveState.RIGHT_FOLLOWER] = rightFollower;
+        this.trackWidth = trackWidth;
+        this.gyro = gyro;
+        // The Talons keep their positions across a code restart, so start the
+        // odometry from where they are now rather than from zero
+        double leftPosition = DriveSubsystem.getMeters(leftMain.getSelectedSensorPosition());
+        double rightPosition = DriveSubsystem.getMeters(rightMain.getSelectedSensorPosition());
+        odometry = new DifferentialDriveOdometry(getHeading(leftPosition, rightPosition), leftPosition,
+                rightPosition);
+
+        notifier = new Notifier(this::sample);
+        notifier.setName("DriveSampler");
+    }
+
+    /**
+     * Take a first sample and start sampling in the background
+     */
+    void start() {
+        sample();
+        notifier.startPeriodic(PERIOD_SECONDS);
+    }
+
+    /**
+     * Get the newest sample. Must only be called from the main robot thread.
+     *
+     * @return the newest drive state
+     */
+    DriveState getLatest() {
+        if ((shared.get() & NEW_SAMPLE) != 0) {
+            front = shared.getAndSet(front) & INDEX_MASK;
+        }
+        return buffers[front];
+    }
+
+    /**
+     * Get the history of poses calculated by the odometry
+     *
+     * @return the pose history
+     */
+    PoseHistory getPoseHistory() {
+        return poseHistory;
+    }
+
+    /**
+     * Reset the odometry to a pose. Takes effect on the next sample.
+     *
+     * @param pose the robot's new pose
+     */
+    void resetPose(Pose2d pose) {
+        pendingReset.set(pose);
+    }
+
+    private Rotation2d getHeading(double leftPosition, double rightPosition) {
+        if (gyro != null) {
+            return gyro.getRotation2d();
+        }
+        return new Rotation2d((rightPosition - leftPosition) / trackWidth);
+    }
+
+    /**
+     * Read all motors into the back buffer, update the odometry and publish it
+     */
+    private void sample() {
+        DriveState state = buffers[back];
+        state.timestamp = Timer.getFPGATimestamp();
+        state.leftPosition = DriveSubsystem.getMeters(motors[DriveState.LEFT_MAIN].getSelectedSensorPosition());
+        state.rightPosition = DriveSubsystem.getMeters(motors[DriveState.RIGHT_MAIN].getSelectedSensorPosition());
+
+        boolean readTemperature = --samplesUntilTemperature <= 0;
+        if (readTemperature) {
+            samplesUntilTemperature = TEMPERATURE_PERIOD_SAMPLES;
+        }
+        for (int i = 0; i < DriveState.MOTOR_COUNT; i++) {
+            state.velocity[i] = DriveSubsystem.getMetersPerSecond(motors[i].getSelectedSensorVelocity());
+            state.statorCurrent[i] = motors[i].getStatorCurrent();
+            if (readTemperature) {
+                temperature[i] = motors[i].getTemperature();
+            }
+            state.temperature[i] = temperature[i];
+        }
+
+        Rotation2d heading = getHeading(state.leftPosition, state.rightPosition);
+        Pose2d reset = pendingReset.getAndSet(null);
+        if (reset != null) {
+            odometry.resetPosition(heading, state.leftPosition, state.rightPosition, reset);
+            poseHistory.clear();
+        }
+        Pose2d pose = odometry.update(heading, state.leftPosition, state.rightPosition);
+        state.poseX = pose.getX();
+        state.poseY = pose.getY();
+        state.heading = pose.getRotation().getRadians();
+        poseHistory.add(state.timestamp, state.poseX, state.poseY, state.heading);
+
+        back = shared.getAndSet(back | NEW_SAMPLE) & INDEX_MASK;
+    }
+}
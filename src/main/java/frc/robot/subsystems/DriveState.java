@@ -0,0 +1,122 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A snapshot of the drivetrain's sensors, taken by the drive sampler thread.
+ *
+ * Snapshots are preallocated and reused by the sampler, so hold on to the
+ * values you need rather than the snapshot itself. Readers can't modify a
+ * snapshot.
+ */
+public class DriveState {
+    // Indexes for the per-motor values
+    public static final int LEFT_MAIN = 0;
+    public static final int LEFT_FOLLOWER = 1;
+    public static final int RIGHT_MAIN = 2;
+    public static final int RIGHT_FOLLOWER = 3;
+    public static final int MOTOR_COUNT = 4;
+
+    double timestamp;
+    double leftPosition;
+    double rightPosition;
+    double poseX;
+    double poseY;
+    double heading;
+    final double[] velocity = new double[MOTOR_COUNT];
+    final double[] statorCurrent = new double[MOTOR_COUNT];
+    final double[] temperature = new double[MOTOR_COUNT];
+
+    DriveState() {
+    }
+
+    /**
+     * @return the FPGA time the sample was taken, in seconds
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the left main motor's position in meters
+     */
+    public double getLeftPosition() {
+        return leftPosition;
+    }
+
+    /**
+     * @return the right main motor's position in meters
+     */
+    public double getRightPosition() {
+        return rightPosition;
+    }
+
+    /**
+     * @return the robot's pose from odometry. Allocates, so prefer the
+     *         primitive getters in code that runs every cycle.
+     */
+    public Pose2d getPose() {
+        return new Pose2d(poseX, poseY, new Rotation2d(heading));
+    }
+
+    /**
+     * @return the robot's x position from odometry, in meters
+     */
+    public double getX() {
+        return poseX;
+    }
+
+    /**
+     * @return the robot's y position from odometry, in meters
+     */
+    public double getY() {
+        return poseY;
+    }
+
+    /**
+     * @return the robot's heading from odometry, in radians
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * @return the left main motor's velocity in meters per second
+     */
+    public double getLeftVelocity() {
+        return velocity[LEFT_MAIN];
+    }
+
+    /**
+     * @return the right main motor's velocity in meters per second
+     */
+    public double getRightVelocity() {
+        return velocity[RIGHT_MAIN];
+    }
+
+    /**
+     * @param motor one of the motor indexes, e.g. {@link #LEFT_MAIN}
+     * @return the motor's velocity in meters per second
+     */
+    public double getVelocity(int motor) {
+        return velocity[motor];
+    }
+
+    /**
+     * @param motor one of the motor indexes, e.g. {@link #LEFT_MAIN}
+     * @return the motor's stator current in amps
+     */
+    public double getStatorCurrent(int motor) {
+        return statorCurrent[motor];
+    }
+
+    /**
+     * @param motor one of the motor indexes, e.g. {@link #LEFT_MAIN}
+     * @return the motor's temperature in degrees Celsius
+     */
+    public double getTemperature(int motor) {
+        return temperature[motor];
+    }
+
+}
@@ -1,18 +1,37 @@
 package frc.robot.subsystems;
 
 import java.lang.Math;
+import com.ctre.phoenix.motorcontrol.DemandType;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.StatorCurrentLimitConfiguration;
+import com.ctre.phoenix.motorcontrol.TalonFXControlMode;
 import com.ctre.phoenix.motorcontrol.TalonFXInvertType;
+import com.ctre.phoenix.motorcontrol.can.TalonFXConfiguration;
+import com.ctre.phoenix.motorcontrol.can.TalonFXSimCollection;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
 
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
+import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.wpilibj.drive.DifferentialDrive;
+import edu.wpi.first.wpilibj.drive.DifferentialDrive.WheelSpeeds;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.hardware.DeviceConfigurator;
+import frc.robot.hardware.Outputs;
+import frc.robot.hardware.StatusFrameSchedule;
+import frc.robot.hardware.TalonFXConfig;
+import frc.robot.telemetry.DriveLogRecord;
+import frc.robot.telemetry.LoopProfiler;
+import frc.robot.telemetry.TelemetryPublisher;
 
 import edu.wpi.first.wpilibj.DataLogManager;
-import edu.wpi.first.util.datalog.DataLog;
-import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
 
 /**
  * Subsystem to model the robot's drivetrain
@@ -32,96 +51,244 @@ public class DriveSubsystem extends SubsystemBase {
 
     // Current limiting enabled?
     private Boolean currentLimitEnabled = true;
-
-    DataLog log;
-    DoubleLogEntry rightMainCurrentLog;
-    DoubleLogEntry leftMainCurrentLog;
-    DoubleLogEntry rightFollowerCurrentLog;
-    DoubleLogEntry leftFollowerCurrentLog;
-
-    DoubleLogEntry leftMainSpeedLog;
-    DoubleLogEntry leftFollowerSpeedLog;
-    DoubleLogEntry rightMainSpeedLog;
-    DoubleLogEntry rightFollowerSpeedLog;
+    // Stator current limit, and the current to allow for a short time before limiting
+    private static final double CURRENT_LIMIT = 100; // amps
+    private static final double CURRENT_LIMIT_THRESHOLD = 115; // amps
+    private static final double CURRENT_LIMIT_THRESHOLD_TIME = 2; // seconds
+    // Fraction of the current limit allowed by the power manager
+    private double currentLimitScale = 1;
+    private double appliedCurrentLimit = CURRENT_LIMIT;
+    // Only reconfigure the motors when the limit moves this much, to keep CAN traffic down
+    private static final double CURRENT_LIMIT_STEP = 5; // amps
+    // Config timeout for changes made while driving: send without waiting for a reply
+    private static final int NO_WAIT_MS = 0;
+
+    // Drivetrain measurements
+    static final double GEAR_RATIO = 8.45; // 8.45:1 gear ratio
+    static final double ENCODER_COUNT = 2048; // 2048 encoder counts per revolution
+    static final double WHEEL_DIAMETER = 0.1524; // 6-inch wheel diameter in meters
+    // Used by odometry and simulation. Estimate, measure on the robot.
+    static final double TRACK_WIDTH = 0.56; // meters
+    // Estimates for simulation, not measured on the robot
+    private static final double MASS = 50; // kg, including battery and bumpers
+    private static final double MOMENT_OF_INERTIA = 5.0; // kg m^2
+
+    // Free speed of a Falcon 500 through the gearbox, in meters per second
+    static final double MAX_SPEED = 6380.0 / 60 / GEAR_RATIO * Math.PI * WHEEL_DIAMETER;
+
+    // Velocity control. The PID runs on the Talons at 1 kHz, the feedforward is
+    // calculated here and sent with each setpoint. Estimates until the drivetrain
+    // is characterized.
+    private static final int VELOCITY_SLOT = 0;
+    private static final double VELOCITY_KP = 0.05; // output per (count / 100 ms) of error
+    private static final double KS = 0.2; // volts
+    private static final double KV = 12.0 / MAX_SPEED; // volts per m/s
+    private static final double KA = 0.3; // volts per m/s^2
+    private static final double NOMINAL_VOLTAGE = 12.0;
+    private static final double DEADBAND = 0.02; // Same as DifferentialDrive's default
+    private final SimpleMotorFeedforward feedforward = new SimpleMotorFeedforward(KS, KV, KA);
+    private final DifferentialDriveKinematics kinematics = new DifferentialDriveKinematics(TRACK_WIDTH);
+    // Previous velocity setpoints, to calculate acceleration for the feedforward
+    private double lastLeftSetpoint = 0;
+    private double lastRightSetpoint = 0;
+    // Whether the motors were last driven open loop, so the previous setpoints are stale
+    private boolean openLoop = true;
+
+    // Robot loop period
+    private static final double LOOP_PERIOD_SECONDS = 0.02;
+
+    // Physics model of the drivetrain, only used in simulation
+    private final DifferentialDrivetrainSim driveSim = new DifferentialDrivetrainSim(DCMotor.getFalcon500(2),
+            GEAR_RATIO, MOMENT_OF_INERTIA, MASS, WHEEL_DIAMETER / 2, TRACK_WIDTH, null);
+
+    // All drivetrain samples, logged as one record per cycle
+    private final DriveLogRecord logRecord;
+
+    private final int profilerSlot;
+
+    // Background sensor reads, and the sample used this cycle
+    private final DriveSampler sampler;
+    private DriveState state;
+
+    // Dashboard values, only published when they change
+    private final TelemetryPublisher telemetry = new TelemetryPublisher();
+    // Temperatures and CAN usage change slowly, so only read them once a second
+    private static final int TEMPERATURE_PERIOD_CYCLES = 50;
 
 
     public DriveSubsystem() {
         // Motor initialization
         // Left motors turn clockwise
-        leftMain = initMotor(1);
+        leftMain = initMotor(1, "Drive Left Main", StatusFrameSchedule.DRIVE_MAIN, true);
         leftMain.setInverted(TalonFXInvertType.Clockwise);
-        leftFollower = initMotor(2);
+        leftFollower = initMotor(2, "Drive Left Follower", StatusFrameSchedule.DRIVE_FOLLOWER, false);
         leftFollower.follow(leftMain);
         leftFollower.setInverted(TalonFXInvertType.FollowMaster);
 
         // Right motors turn counterclockwise
-        rightMain = initMotor(3);
+        rightMain = initMotor(3, "Drive Right Main", StatusFrameSchedule.DRIVE_MAIN, true);
         rightMain.setInverted(TalonFXInvertType.CounterClockwise);
-        rightFollower = initMotor(4);
+        rightFollower = initMotor(4, "Drive Right Follower", StatusFrameSchedule.DRIVE_FOLLOWER, false);
         rightFollower.follow(rightMain);
         rightFollower.setInverted(TalonFXInvertType.FollowMaster);
 
-        setCurrentLimitEnabled(true);
 
         // Drivetrain initialization
         drive = new DifferentialDrive(leftMain, rightMain);
 
-        DataLogManager.start();
-        rightMainCurrentLog = new DoubleLogEntry(DataLogManager.getLog(), "Right Main Current");
-        leftMainCurrentLog = new DoubleLogEntry(DataLogManager.getLog(), "Left Main Current");
-        rightFollowerCurrentLog = new DoubleLogEntry(DataLogManager.getLog(), "Right Follower Current");
-        leftFollowerCurrentLog = new DoubleLogEntry(DataLogManager.getLog(), "Left Follower Current");
+        // No gyro yet, so odometry heading comes from the encoders
+        sampler = new DriveSampler(leftMain, leftFollower, rightMain, rightFollower, TRACK_WIDTH, null);
+        sampler.start();
+        state = sampler.getLatest();
+
+        logRecord = new DriveLogRecord(DataLogManager.getLog());
+
+        profilerSlot = LoopProfiler.getInstance().register(getName());
+        initializeTelemetry();
+
+        // Estimated share of the CAN bus used by drive motor status frames
+        double statusFramesPerSecond = 2 * StatusFrameSchedule.DRIVE_MAIN.getFramesPerSecond()
+                + 2 * StatusFrameSchedule.DRIVE_FOLLOWER.getFramesPerSecond();
+        SmartDashboard.putNumber("CAN/Drive Status Frame Utilization (%)",
+                100 * StatusFrameSchedule.estimateBusUtilization(statusFramesPerSecond));
+    }
 
-        leftMainSpeedLog = new DoubleLogEntry(DataLogManager.getLog(), "Left Main Speed");
-        leftFollowerSpeedLog = new DoubleLogEntry(DataLogManager.getLog(), "Left Follower Speed");
-        rightMainSpeedLog = new DoubleLogEntry(DataLogManager.getLog(), "Right Main Speed");
-        rightFollowerSpeedLog = new DoubleLogEntry(DataLogManager.getLog(), "Right Follower Speed");
+    /**
+     * Declare the values this subsystem publishes to the dashboard
+     */
+    private void initializeTelemetry() {
+        telemetry.addDouble("Left Main Sensor Position (m)", () -> -state.getLeftPosition(), 0.001);
+        telemetry.addDouble("Left Main Sensor Velocity (m/s)", () -> Math.abs(state.getLeftVelocity()), 0.01);
+        telemetry.addDouble("Right Main Sensor position (m)", () -> -state.getRightPosition(), 0.001);
+        telemetry.addDouble("Right Main Sensor velocity (m/s)", () -> Math.abs(state.getRightVelocity()), 0.01);
+        // Odometry
+        telemetry.addDouble("Odometry/X (m)", () -> state.getX(), 0.01);
+        telemetry.addDouble("Odometry/Y (m)", () -> state.getY(), 0.01);
+        telemetry.addDouble("Odometry/Heading (deg)", () -> Math.toDegrees(state.getHeading()), 0.5);
+        // Motor temps
+        telemetry.addDouble("MotorTemperature/Left Main (C)", () -> Math.round(state.getTemperature(DriveState.LEFT_MAIN)), 0.5, TEMPERATURE_PERIOD_CYCLES);
+        telemetry.addDouble("MotorTemperature/Left Follower (C)", () -> Math.round(state.getTemperature(DriveState.LEFT_FOLLOWER)), 0.5, TEMPERATURE_PERIOD_CYCLES);
+        telemetry.addDouble("MotorTemperature/Right Main (C)", () -> Math.round(state.getTemperature(DriveState.RIGHT_MAIN)), 0.5, TEMPERATURE_PERIOD_CYCLES);
+        telemetry.addDouble("MotorTemperature/Right Follower (C)", () -> Math.round(state.getTemperature(DriveState.RIGHT_FOLLOWER)), 0.5, TEMPERATURE_PERIOD_CYCLES);
+        // Brake Mode
+        telemetry.addBoolean("Brake Mode", () -> getNeutralMode() == NeutralMode.Brake);
+        // Current Limiting
+        telemetry.addBoolean("Current limiting", this::isCurrentLimitEnabled);
+        // Motor current
+        telemetry.addDouble("MotorCurrent/Left Main", () -> state.getStatorCurrent(DriveState.LEFT_MAIN), 0.5);
+        telemetry.addDouble("MotorCurrent/Left Follower", () -> state.getStatorCurrent(DriveState.LEFT_FOLLOWER), 0.5);
+        telemetry.addDouble("MotorCurrent/Right Main", () -> state.getStatorCurrent(DriveState.RIGHT_MAIN), 0.5);
+        telemetry.addDouble("MotorCurrent/Right Follower", () -> state.getStatorCurrent(DriveState.RIGHT_FOLLOWER), 0.5);
+        // Measured CAN bus usage, to compare with the estimate
+        telemetry.addDouble("CAN/Bus Utilization (%)", () -> 100 * RobotController.getCANStatus().percentBusUtilization, 0.5, TEMPERATURE_PERIOD_CYCLES);
     }
 
     /**
-     * Helper method to initialize a WPI_TalonFX.
+     * Helper method to initialize a WPI_TalonFX. The configuration is compared
+     * with what the motor already has and runs in the background, alongside the
+     * other devices.
      * 
-     * @param canId The motor's CAN ID
+     * @param canId           The motor's CAN ID
+     * @param name            The motor's name in the startup report
+     * @param statusFrames    How often the motor sends each status frame
+     * @param velocityControl Whether the motor runs the velocity PID
      * @return newly initialized WPI_TalonFX
      */
-    private WPI_TalonFX initMotor(int canId) {
+    private WPI_TalonFX initMotor(int canId, String name, StatusFrameSchedule statusFrames,
+            boolean velocityControl) {
         WPI_TalonFX motor = new WPI_TalonFX(canId);
-        motor.configFactoryDefault();
-        motor.setNeutralMode(neutralMode);
+        // Factory defaults, plus what we change
+        TalonFXConfiguration config = new TalonFXConfiguration();
+        config.statorCurrLimit = getCurrentLimit(true, 1);
+        if (velocityControl) {
+            config.slot0.kP = VELOCITY_KP;
+        }
+        NeutralMode initialNeutralMode = neutralMode;
+        DeviceConfigurator.getInstance().submit(TalonFXConfig.create(name, motor, config, VELOCITY_SLOT)
+                // The Talon doesn't keep these across reboots
+                .always(() -> {
+                    motor.setNeutralMode(initialNeutralMode);
+                    motor.selectProfileSlot(VELOCITY_SLOT, 0);
+                    return true;
+                })
+                .always(() -> statusFrames.apply(motor)));
         return motor;
     }
 
     @Override
     public void periodic() {
+        LoopProfiler.getInstance().start(profilerSlot);
+        state = sampler.getLatest();
 
-        SmartDashboard.putNumber("Left Main Sensor Position (m)", -getMeters(leftMain.getSelectedSensorPosition()));
-        SmartDashboard.putNumber("Left Main Sensor Velocity (m/s)", Math.abs(getMetersPerSecond(leftMain.getSelectedSensorVelocity())));
-        SmartDashboard.putNumber("Right Main Sensor position (m)", -getMeters(rightMain.getSelectedSensorPosition()));
-        SmartDashboard.putNumber("Right Main Sensor velocity (m/s)", Math.abs(getMetersPerSecond(rightMain.getSelectedSensorVelocity())));
-        // Motor temps
-        SmartDashboard.putNumber("MotorTemperature/Left Main (C)", Math.round(leftMain.getTemperature()));
-        SmartDashboard.putNumber("MotorTemperature/Left Follower (C)", Math.round(leftFollower.getTemperature()));
-        SmartDashboard.putNumber("MotorTemperature/Right Main (C)", Math.round(rightMain.getTemperature()));
-        SmartDashboard.putNumber("MotorTemperature/Right Follower (C)", Math.round(rightFollower.getTemperature()));
-        // Brake Mode
-        SmartDashboard.putBoolean("Brake Mode", getNeutralMode() == NeutralMode.Brake);
-        // Current Limiting
-        SmartDashboard.putBoolean("Current limiting", isCurrentLimitEnabled());
-        // Motor current
-        SmartDashboard.putNumber("MotorCurrent/Left Main", leftMain.getStatorCurrent());
-        SmartDashboard.putNumber("MotorCurrent/Left Follower", leftFollower.getStatorCurrent());
-        SmartDashboard.putNumber("MotorCurrent/Right Main", rightMain.getStatorCurrent());
-        SmartDashboard.putNumber("MotorCurrent/Right Follower", rightFollower.getStatorCurrent());
+        telemetry.update();
+
+        logRecord.set(DriveLogRecord.LEFT_MAIN_CURRENT, state.getStatorCurrent(DriveState.LEFT_MAIN));
+        logRecord.set(DriveLogRecord.LEFT_FOLLOWER_CURRENT, state.getStatorCurrent(DriveState.LEFT_FOLLOWER));
+        logRecord.set(DriveLogRecord.RIGHT_MAIN_CURRENT, state.getStatorCurrent(DriveState.RIGHT_MAIN));
+        logRecord.set(DriveLogRecord.RIGHT_FOLLOWER_CURRENT, state.getStatorCurrent(DriveState.RIGHT_FOLLOWER));
+
+        logRecord.set(DriveLogRecord.LEFT_MAIN_SPEED, state.getVelocity(DriveState.LEFT_MAIN));
+        logRecord.set(DriveLogRecord.LEFT_FOLLOWER_SPEED, state.getVelocity(DriveState.LEFT_FOLLOWER));
+        logRecord.set(DriveLogRecord.RIGHT_MAIN_SPEED, state.getVelocity(DriveState.RIGHT_MAIN));
+        logRecord.set(DriveLogRecord.RIGHT_FOLLOWER_SPEED, state.getVelocity(DriveState.RIGHT_FOLLOWER));
+
+        logRecord.set(DriveLogRecord.LEFT_POSITION, state.getLeftPosition());
+        logRecord.set(DriveLogRecord.RIGHT_POSITION, state.getRightPosition());
+        logRecord.append();
+
+        LoopProfiler.getInstance().stop(profilerSlot);
+    }
+
+    /**
+     * Get the newest sensor sample from the drive sampler thread. Doesn't block,
+     * and must only be called from the main robot thread.
+     * 
+     * @return the newest drive state
+     */
+    public DriveState getState() {
+        return sampler.getLatest();
+    }
+
+    /**
+     * Get the robot's pose from odometry, updated by the sampler thread
+     * 
+     * @return the robot's current pose
+     */
+    public Pose2d getPose() {
+        return sampler.getLatest().getPose();
+    }
 
-        rightMainCurrentLog.append(rightMain.getStatorCurrent());
-        leftMainCurrentLog.append(leftMain.getStatorCurrent());
-        rightFollowerCurrentLog.append(rightFollower.getStatorCurrent());
-        leftFollowerCurrentLog.append(leftFollower.getStatorCurrent());
+    /**
+     * Get the robot's pose at an earlier time, for latency-compensated measurements
+     * 
+     * @param timestamp the FPGA time in seconds
+     * @return the pose at that time, or null if no poses have been recorded
+     */
+    public Pose2d getPose(double timestamp) {
+        return sampler.getPoseHistory().getPose(timestamp);
+    }
 
-        leftMainSpeedLog.append(getMetersPerSecond(leftMain.getSelectedSensorVelocity()));
-        leftFollowerSpeedLog.append(getMetersPerSecond(leftFollower.getSelectedSensorVelocity()));
-        rightMainSpeedLog.append(getMetersPerSecond(rightMain.getSelectedSensorVelocity()));
-        rightFollowerSpeedLog.append(getMetersPerSecond(rightFollower.getSelectedSensorVelocity()));
+    /**
+     * @return the drivetrain's kinematics, for planning paths
+     */
+    public DifferentialDriveKinematics getKinematics() {
+        return kinematics;
+    }
+
+    /**
+     * @return the feedforward used by velocity control, for planning paths
+     */
+    public SimpleMotorFeedforward getFeedforward() {
+        return feedforward;
+    }
+
+    /**
+     * Reset the odometry to a pose, e.g. at the start of autonomous
+     * 
+     * @param pose the robot's pose
+     */
+    public void resetPose(Pose2d pose) {
+        sampler.resetPose(pose);
     }
 
     /**
@@ -132,7 +299,62 @@ public class DriveSubsystem extends SubsystemBase {
      *              turn rate for turn-in-place maneuvers
      */
     public void drive(double speed, double turn) {
+        if (Outputs.isMuted()) {
+            DifferentialDrive.curvatureDriveIK(speed, turn, true);
+            return;
+        }
         drive.curvatureDrive(speed, turn, true);
+        openLoop = true;
+    }
+
+    /**
+     * Drives the robot using closed-loop velocity control, so the robot's speed
+     * doesn't depend on battery voltage or load. Takes the same inputs as
+     * {@link #drive(double, double)}, scaled to the drivetrain's top speed.
+     * 
+     * @param speed Robot speed as a fraction of top speed in [-1.0, 1.0]
+     * @param turn  The robot's curvature as a value in [-1.0, 1.0]. Also controls
+     *              turn rate for turn-in-place maneuvers
+     */
+    public void driveVelocity(double speed, double turn) {
+        WheelSpeeds wheelSpeeds = DifferentialDrive.curvatureDriveIK(MathUtil.applyDeadband(speed, DEADBAND),
+                MathUtil.applyDeadband(turn, DEADBAND), true);
+        setWheelVelocities(wheelSpeeds.left * MAX_SPEED, wheelSpeeds.right * MAX_SPEED);
+    }
+
+    /**
+     * Run each side of the drivetrain at a velocity, using the Talons' onboard
+     * velocity PID plus feedforward
+     * 
+     * @param leftMetersPerSecond  left wheel velocity
+     * @param rightMetersPerSecond right wheel velocity
+     */
+    public void setWheelVelocities(double leftMetersPerSecond, double rightMetersPerSecond) {
+        double previousLeft = lastLeftSetpoint;
+        double previousRight = lastRightSetpoint;
+        if (openLoop) {
+            // Accelerate from how fast the wheels are going, not from a stale setpoint
+            DriveState measured = getState();
+            previousLeft = measured.getLeftVelocity();
+            previousRight = measured.getRightVelocity();
+        }
+        double leftFeedforward = feedforward.calculate(leftMetersPerSecond,
+                (leftMetersPerSecond - previousLeft) / LOOP_PERIOD_SECONDS) / NOMINAL_VOLTAGE;
+        double rightFeedforward = feedforward.calculate(rightMetersPerSecond,
+                (rightMetersPerSecond - previousRight) / LOOP_PERIOD_SECONDS) / NOMINAL_VOLTAGE;
+        if (Outputs.isMuted()) {
+            return;
+        }
+        openLoop = false;
+        lastLeftSetpoint = leftMetersPerSecond;
+        lastRightSetpoint = rightMetersPerSecond;
+
+        leftMain.set(TalonFXControlMode.Velocity, getSensorUnitsPer100ms(leftMetersPerSecond),
+                DemandType.ArbitraryFeedForward, leftFeedforward);
+        rightMain.set(TalonFXControlMode.Velocity, getSensorUnitsPer100ms(rightMetersPerSecond),
+                DemandType.ArbitraryFeedForward, rightFeedforward);
+        // The motors aren't driven through DifferentialDrive here, so keep its safety timer happy
+        drive.feed();
     }
 
     /**
@@ -143,6 +365,9 @@ public class DriveSubsystem extends SubsystemBase {
      * @param neutralMode The motor's neutral mode
      */
     public void setNeutralMode(NeutralMode neutralMode) {
+        if (Outputs.isMuted()) {
+            return;
+        }
         this.neutralMode = neutralMode;
         leftMain.setNeutralMode(neutralMode);
         leftFollower.setNeutralMode(neutralMode);
@@ -173,34 +398,112 @@ public class DriveSubsystem extends SubsystemBase {
      */
     public void setCurrentLimitEnabled(boolean enabled) {
         currentLimitEnabled = enabled;
-        StatorCurrentLimitConfiguration limiter = new StatorCurrentLimitConfiguration(currentLimitEnabled, 100, 115, 2);
-        leftMain.configStatorCurrentLimit(limiter);
-        leftFollower.configStatorCurrentLimit(limiter);
-        rightMain.configStatorCurrentLimit(limiter);
-        rightFollower.configStatorCurrentLimit(limiter);
+        applyCurrentLimit();
+    }
 
+    /**
+     * Scale the stator current limit, to protect the battery voltage. Has no
+     * effect while current limiting is disabled.
+     * 
+     * @param scale the fraction of the full current limit to allow, in (0, 1]
+     */
+    public void setCurrentLimitScale(double scale) {
+        currentLimitScale = scale;
+        double limit = CURRENT_LIMIT * scale;
+        // Always go back to the full limit, even if it's a small step
+        if (limit == appliedCurrentLimit
+                || (scale < 1 && Math.abs(limit - appliedCurrentLimit) < CURRENT_LIMIT_STEP)) {
+            return;
+        }
+        applyCurrentLimit();
+    }
+
+    /**
+     * Send the current limit to the Talons. Runs in the main loop, often while
+     * the battery is sagging, so the writes don't wait for the Talons to reply.
+     */
+    private void applyCurrentLimit() {
+        appliedCurrentLimit = CURRENT_LIMIT * currentLimitScale;
+        StatorCurrentLimitConfiguration limiter = getCurrentLimit(currentLimitEnabled, currentLimitScale);
+        leftMain.configStatorCurrentLimit(limiter, NO_WAIT_MS);
+        leftFollower.configStatorCurrentLimit(limiter, NO_WAIT_MS);
+        rightMain.configStatorCurrentLimit(limiter, NO_WAIT_MS);
+        rightFollower.configStatorCurrentLimit(limiter, NO_WAIT_MS);
+    }
+
+    private static StatorCurrentLimitConfiguration getCurrentLimit(boolean enabled, double scale) {
+        return new StatorCurrentLimitConfiguration(enabled, CURRENT_LIMIT * scale, CURRENT_LIMIT_THRESHOLD * scale,
+                CURRENT_LIMIT_THRESHOLD_TIME);
     }
 
     /**
      * Stop the subsystem
      */
     public void stop() {
+        if (Outputs.isMuted()) {
+            return;
+        }
         leftMain.set(0);
         rightMain.set(0);
+        openLoop = true;
     }
 
-    private static double getMeters(double sensorReading) {
-        final double gearRatio = 8.45; // 8.45:1 gear ratio
-        final double encoderCount = 2048; // 2048 encoder counts per revolution
-        final double wheelDiameter = 0.1524; // 6-inch wheel diameter in meters
-        final double wheelCircumference = (Math.PI * wheelDiameter);
-        final double pulsesPerRevolution = (gearRatio * encoderCount);
+    static double getMeters(double sensorReading) {
+        final double wheelCircumference = (Math.PI * WHEEL_DIAMETER);
+        final double pulsesPerRevolution = (GEAR_RATIO * ENCODER_COUNT);
 
         return sensorReading / pulsesPerRevolution * wheelCircumference;
     }
 
-    private static double getMetersPerSecond(double sensorReading) {
+    static double getMetersPerSecond(double sensorReading) {
         return getMeters(sensorReading) * 10;
     }
 
+    /**
+     * Convert meters to encoder counts. The inverse of getMeters.
+     */
+    static double getSensorUnits(double meters) {
+        return meters / getMeters(1);
+    }
+
+    /**
+     * Convert meters per second to encoder counts per 100 ms. The inverse of
+     * getMetersPerSecond.
+     */
+    static double getSensorUnitsPer100ms(double metersPerSecond) {
+        return metersPerSecond / getMetersPerSecond(1);
+    }
+
+    @Override
+    public void simulationPeriodic() {
+        TalonFXSimCollection leftSim = leftMain.getSimCollection();
+        TalonFXSimCollection rightSim = rightMain.getSimCollection();
+        double batteryVoltage = RobotController.getBatteryVoltage();
+        leftSim.setBusVoltage(batteryVoltage);
+        leftFollower.getSimCollection().setBusVoltage(batteryVoltage);
+        rightSim.setBusVoltage(batteryVoltage);
+        rightFollower.getSimCollection().setBusVoltage(batteryVoltage);
+
+        // The sim collections work in the motor's own direction, so the inverted
+        // left side is negated to get the drivetrain's direction
+        driveSim.setInputs(-leftSim.getMotorOutputLeadVoltage(), rightSim.getMotorOutputLeadVoltage());
+        driveSim.update(LOOP_PERIOD_SECONDS);
+
+        leftSim.setIntegratedSensorRawPosition((int) getSensorUnits(-driveSim.getLeftPositionMeters()));
+        leftSim.setIntegratedSensorVelocity((int) getSensorUnitsPer100ms(-driveSim.getLeftVelocityMetersPerSecond()));
+        rightSim.setIntegratedSensorRawPosition((int) getSensorUnits(driveSim.getRightPositionMeters()));
+        rightSim.setIntegratedSensorVelocity((int) getSensorUnitsPer100ms(driveSim.getRightVelocityMetersPerSecond()));
+
+        // Each gearbox's current is shared by its two motors
+        double leftCurrent = driveSim.getLeftCurrentDrawAmps() / 2;
+        double rightCurrent = driveSim.getRightCurrentDrawAmps() / 2;
+        leftSim.setStatorCurrent(leftCurrent);
+        leftFollower.getSimCollection().setStatorCurrent(leftCurrent);
+        rightSim.setStatorCurrent(rightCurrent);
+        rightFollower.getSimCollection().setStatorCurrent(rightCurrent);
+
+        // Sag the simulated battery so brownouts show up
+        RoboRioSim.setVInVoltage(BatterySim.calculateDefaultBatteryLoadedVoltage(driveSim.getCurrentDrawAmps()));
+    }
+
 }
@@ -3,6 +3,8 @@ package frc.robot.subsystems;
 
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.hardware.Outputs;
+import frc.robot.telemetry.LoopProfiler;
 
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj.Solenoid;
@@ -18,11 +20,22 @@ public class IntakeArmsSubsystem extends SubsystemBase {
     private static ArmState currentArmState = ArmState.RAISED;
     public static final int armSolenoidChannel = 0;
     public static final int pcmCANID = 20;
+    // Estimated free air to fill the arm cylinders' side once. Measure on the robot.
+    private static final double ARM_LITERS_PER_ACTUATION = 0.2;
+    private final PneumaticsSubsystem pneumatics;
+    private final int airSlot;
+    private final int profilerSlot;
 
-    public IntakeArmsSubsystem() {
+    /**
+     * @param pneumatics the pneumatics subsystem, which tracks the arms' air use
+     */
+    public IntakeArmsSubsystem(PneumaticsSubsystem pneumatics) {
         armSolenoid = new Solenoid(IntakeArmsSubsystem.pcmCANID, PneumaticsModuleType.CTREPCM,
                 IntakeArmsSubsystem.armSolenoidChannel);
         addChild("ArmSolenoid", armSolenoid);
+        this.pneumatics = pneumatics;
+        airSlot = pneumatics.registerSolenoid("Arms", ARM_LITERS_PER_ACTUATION);
+        profilerSlot = LoopProfiler.getInstance().register(getName());
 
     }
 
@@ -32,6 +45,12 @@ public class IntakeArmsSubsystem extends SubsystemBase {
      * @param state The desired arm state (raised or lowered)
      */
     public void setArmState(ArmState state) {
+        if (Outputs.isMuted()) {
+            return;
+        }
+        if (state != currentArmState) {
+            pneumatics.recordActuation(airSlot);
+        }
         armSolenoid.set(state == ArmState.LOWERED);
         currentArmState = state;
     }
@@ -47,7 +66,9 @@ public class IntakeArmsSubsystem extends SubsystemBase {
 
     @Override
     public void periodic() {
+        LoopProfiler.getInstance().start(profilerSlot);
         SmartDashboard.putBoolean("Arms Raised?", (currentArmState == ArmState.RAISED) ? true : false);
+        LoopProfiler.getInstance().stop(profilerSlot);
     }
 
 }
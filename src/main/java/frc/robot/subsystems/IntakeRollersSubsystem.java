@@ -2,6 +2,9 @@
 package frc.robot.subsystems;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.hardware.DeviceConfigurator;
+import frc.robot.hardware.Outputs;
+import frc.robot.hardware.SparkMaxConfig;
 import frc.robot.hardware.WPI_CANSparkMax;
 
 import com.revrobotics.CANSparkMax.IdleMode;
@@ -10,12 +13,14 @@ import com.revrobotics.CANSparkMaxLowLevel.MotorType;
 public class IntakeRollersSubsystem extends SubsystemBase {
 
     private WPI_CANSparkMax intakeRollerMotor;
+    // Fraction of full output allowed by the power manager
+    private double outputScale = 1;
     public static final int CAN_ID = 6; // CAN ID should be 6, it may be different as a result of testing
 
     public IntakeRollersSubsystem() {
         intakeRollerMotor = new WPI_CANSparkMax(IntakeRollersSubsystem.CAN_ID, MotorType.kBrushless);
-        intakeRollerMotor.restoreFactoryDefaults();
-        intakeRollerMotor.setIdleMode(IdleMode.kBrake);
+        DeviceConfigurator.getInstance()
+                .submit(SparkMaxConfig.create("Intake Rollers", intakeRollerMotor, IdleMode.kBrake));
         addChild("Intake Roller Motor", intakeRollerMotor);
 
     }
@@ -25,11 +30,32 @@ public class IntakeRollersSubsystem extends SubsystemBase {
      * @param speed The speed in [-1.0, 1.0]
      */
     public void setSpeed(double speed) {
-        intakeRollerMotor.set(speed);
+        if (Outputs.isMuted()) {
+            return;
+        }
+        intakeRollerMotor.set(speed * outputScale);
+    }
+
+    /**
+     * Scale every speed set from now on, to protect the battery voltage
+     * @param scale the fraction of full output to allow, in (0, 1]
+     */
+    public void setOutputScale(double scale) {
+        outputScale = scale;
     }
 
     public void stop() {
+        if (Outputs.isMuted()) {
+            return;
+        }
         intakeRollerMotor.stopMotor();
     }
 
+    /**
+     * @return the speed last set, or 0 once stopped
+     */
+    public double getSpeed() {
+        return intakeRollerMotor.get();
+    }
+
 }
@@ -0,0 +1,120 @@
+package frc.robot.subsystems;
+
+import java.util.Arrays;
+
+/**
+ * An LED pattern for one segment, with every frame computed up front.
+ *
+ * Colors are packed as 0xRRGGBB ints, see {@link LEDSubsystem#rgb(int, int, int)}.
+ * Playing an animation only copies precomputed pixels, so nothing is computed
+ * or allocated while the robot runs.
+ */
+public class LEDAnimation {
+    private final int[][] frames;
+    private final int cyclesPerFrame;
+
+    /**
+     * @param frames         the color of every pixel in each frame
+     * @param cyclesPerFrame how many 20 ms cycles to show each frame
+     */
+    public LEDAnimation(int[][] frames, int cyclesPerFrame) {
+        if (frames.length == 0 || cyclesPerFrame < 1) {
+            throw new IllegalArgumentException("An animation needs at least one frame, shown for at least one cycle");
+        }
+        for (int[] frame : frames) {
+            if (frame.length != frames[0].length) {
+                throw new IllegalArgumentException("Every frame must have the same length");
+            }
+        }
+        this.frames = frames;
+        this.cyclesPerFrame = cyclesPerFrame;
+    }
+
+    /**
+     * @param length the number of pixels
+     * @param color  the color
+     * @return a single frame of one color
+     */
+    public static LEDAnimation solid(int length, int color) {
+        int[][] frames = new int[1][length];
+        Arrays.fill(frames[0], color);
+        return new LEDAnimation(frames, 1);
+    }
+
+    /**
+     * A block of lit pixels that moves along the segment and wraps around
+     *
+     * @param length         the number of pixels
+     * @param color          the block's color
+     * @param background     the color of the other pixels
+     * @param blockLength    the number of lit pixels
+     * @param cyclesPerFrame how many cycles before moving one pixel
+     * @return the animation
+     */
+    public static LEDAnimation chase(int length, int color, int background, int blockLength, int cyclesPerFrame) {
+        int[][] frames = new int[length][length];
+        for (int frame = 0; frame < length; frame++) {
+            for (int i = 0; i < length; i++) {
+                // How far pixel i is behind the head of the block
+                int behind = Math.floorMod(frame - i, length);
+                frames[frame][i] = behind < blockLength ? color : background;
+            }
+        }
+        return new LEDAnimation(frames, cyclesPerFrame);
+    }
+
+    /**
+     * The whole segment fading between off and a color
+     *
+     * @param length the number of pixels
+     * @param color  the brightest color
+     * @param period the number of cycles from off to bright and back
+     * @return the animation
+     */
+    public static LEDAnimation pulse(int length, int color, int period) {
+        int[][] frames = new int[period][length];
+        for (int frame = 0; frame < period; frame++) {
+            double brightness = 0.5 - 0.5 * Math.cos(2 * Math.PI * frame / period);
+            Arrays.fill(frames[frame], scale(color, brightness));
+        }
+        return new LEDAnimation(frames, 1);
+    }
+
+    /**
+     * Alternate between two colors
+     *
+     * @param length         the number of pixels
+     * @param color          the first color
+     * @param other          the second color
+     * @param cyclesPerFrame how many cycles to show each color
+     * @return the animation
+     */
+    public static LEDAnimation blink(int length, int color, int other, int cyclesPerFrame) {
+        int[][] frames = new int[2][length];
+        Arrays.fill(frames[0], color);
+        Arrays.fill(frames[1], other);
+        return new LEDAnimation(frames, cyclesPerFrame);
+    }
+
+    private static int scale(int color, double brightness) {
+        int red = (int) Math.round(((color >> 16) & 0xFF) * brightness);
+        int green = (int) Math.round(((color >> 8) & 0xFF) * brightness);
+        int blue = (int) Math.round((color & 0xFF) * brightness);
+        return LEDSubsystem.rgb(red, green, blue);
+    }
+
+    /**
+     * @return the number of pixels in each frame
+     */
+    public int getLength() {
+        return frames[0].length;
+    }
+
+    /**
+     * @param cycle the number of cycles since the animation started
+     * @return the pixels to show on that cycle
+     */
+    int[] getFrame(int cycle) {
+        return frames[(cycle / cyclesPerFrame) % frames.length];
+    }
+}
@@ -4,12 +4,60 @@ import edu.wpi.first.wpilibj.AddressableLED;
 import edu.wpi.first.wpilibj.AddressableLEDBuffer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.telemetry.LoopProfiler;
 
+/**
+ * The LED strip, split into named segments.
+ *
+ * The color of every pixel is kept as a packed 0xRRGGBB int next to the
+ * AddressableLEDBuffer. Writing a pixel that already has that color does
+ * nothing, and the buffer is only sent to the strip in periodic() when a pixel
+ * has actually changed, so holding a color costs nothing. Each segment can play
+ * a precomputed {@link LEDAnimation}, advanced once a cycle in periodic().
+ */
 public class LEDSubsystem extends SubsystemBase {
+
+    public enum Segment {
+        ALL(0, 170),
+        // The two halves of the strip, for patterns that differ side to side
+        FIRST_HALF(0, 85),
+        SECOND_HALF(85, 85);
+
+        private final int start;
+        private final int length;
+
+        Segment(int start, int length) {
+            this.start = start;
+            this.length = length;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getLength() {
+            return length;
+        }
+    }
+
+    public static final int OFF = 0x000000;
+    public static final int BLUE = 0x0000FF;
+
     private static int ledPort = 0;
     private static int ledLength = 170;
     private AddressableLED led;
     private AddressableLEDBuffer ledBuffer;
+    private final int profilerSlot;
+
+    // The color of each pixel, to skip writes that change nothing
+    private final int[] pixels = new int[ledLength];
+    // Whether pixels have changed since the buffer was last sent
+    private boolean dirty = false;
+
+    // The animation playing on each segment, by ordinal, and its cycle count
+    private final LEDAnimation[] animations = new LEDAnimation[Segment.values().length];
+    private final int[] animationCycles = new int[Segment.values().length];
+    private static final Segment[] SEGMENTS = Segment.values();
 
     public LEDSubsystem() {
         led = new AddressableLED(ledPort);
@@ -17,26 +65,130 @@ public class LEDSubsystem extends SubsystemBase {
         led.setLength(ledBuffer.getLength());
         led.start();
 
+        // The buffer starts off, so force the first color out
+        dirty = true;
         setLedColor(0, 0, 255);
+        profilerSlot = LoopProfiler.getInstance().register(getName());
     }
 
     @Override
     public void periodic() {
-        SmartDashboard.putBoolean("LED Color", convertColor());
+        LoopProfiler.getInstance().start(profilerSlot);
+        for (Segment segment : SEGMENTS) {
+            LEDAnimation animation = animations[segment.ordinal()];
+            if (animation != null) {
+                int cycle = animationCycles[segment.ordinal()]++;
+                write(segment, animation.getFrame(cycle));
+            }
+        }
+        if (dirty) {
+            led.setData(ledBuffer);
+            dirty = false;
+        }
+        SmartDashboard.putBoolean("LED Color", isColor(BLUE));
+        LoopProfiler.getInstance().stop(profilerSlot);
     }
 
+    /**
+     * Set the whole strip to one color, stopping any animations. Shown on the
+     * next periodic().
+     */
     public void setLedColor(int red, int green, int blue) {
-        for (var i = 0; i < ledBuffer.getLength(); i++) {
-            ledBuffer.setRGB(i, red, green, blue);
+        setColor(Segment.ALL, rgb(red, green, blue));
+    }
+
+    /**
+     * Set a segment to one color, stopping its animation
+     *
+     * @param segment the segment
+     * @param color   the packed color
+     */
+    public void setColor(Segment segment, int color) {
+        stopAnimations(segment);
+        for (int i = segment.start; i < segment.start + segment.length; i++) {
+            setPixel(i, color);
         }
-        led.setData(ledBuffer);
     }
 
-    public boolean convertColor(){
-        if (ledBuffer.getLED(0).toString().equals("#0000FF")){
-        return true;
+    /**
+     * Play an animation on a segment from its first frame, stopping animations
+     * on overlapping segments. Playing the animation that is already playing
+     * leaves it running where it is, so this can be called every cycle.
+     *
+     * @param segment   the segment
+     * @param animation an animation with the segment's length
+     */
+    public void play(Segment segment, LEDAnimation animation) {
+        if (animation.getLength() != segment.length) {
+            throw new IllegalArgumentException(
+                    "Animation has " + animation.getLength() + " pixels, " + segment + " has " + segment.length);
         }
-        return false;
+        if (animations[segment.ordinal()] == animation) {
+            return;
+        }
+        stopAnimations(segment);
+        animations[segment.ordinal()] = animation;
+        animationCycles[segment.ordinal()] = 0;
     }
 
+    // Stop the animations on every segment that overlaps this one
+    private void stopAnimations(Segment segment) {
+        for (Segment other : SEGMENTS) {
+            if (other.start < segment.start + segment.length && segment.start < other.start + other.length) {
+                animations[other.ordinal()] = null;
+            }
+        }
+    }
+
+    private void write(Segment segment, int[] frame) {
+        for (int i = 0; i < segment.length; i++) {
+            setPixel(segment.start + i, frame[i]);
+        }
+    }
+
+    private void setPixel(int index, int color) {
+        if (pixels[index] != color) {
+            pixels[index] = color;
+            ledBuffer.setRGB(index, (color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF);
+            dirty = true;
+        }
+    }
+
+    /**
+     * @param index the pixel
+     * @return the pixel's packed color
+     */
+    public int getPixel(int index) {
+        return pixels[index];
+    }
+
+    /**
+     * Check the strip's color without allocating
+     *
+     * @param color the packed color
+     * @return whether the first pixel is that color
+     */
+    public boolean isColor(int color) {
+        return pixels[0] == color;
+    }
+
+    /**
+     * @param segment the segment
+     * @return the animation playing on it, or null
+     */
+    public LEDAnimation getAnimation(Segment segment) {
+        return animations[segment.ordinal()];
+    }
+
+    /**
+     * Pack a color into an int
+     *
+     * @param red   0-255
+     * @param green 0-255
+     * @param blue  0-255
+     * @return the color as 0xRRGGBB
+     */
+    public static int rgb(int red, int green, int blue) {
+        return (red & 0xFF) << 16 | (green & 0xFF) << 8 | (blue & 0xFF);
+    }
 }
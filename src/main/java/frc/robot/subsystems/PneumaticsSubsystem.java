@@ -0,0 +1,159 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.wpilibj.Compressor;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.PneumaticsModuleType;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.telemetry.LoopProfiler;
+import frc.robot.telemetry.TelemetryPublisher;
+
+/**
+ * The compressor, and an estimate of how much air the solenoids use.
+ *
+ * Subsystems register each solenoid with the free air one actuation uses, and
+ * report every time they switch it. The air used since the pressure switch
+ * last read full tells us roughly how much is left in the tanks.
+ *
+ * The compressor draws 10-20 A. While the drivetrain is pulling hard, or the
+ * power manager is already scaling loads down, the compressor is turned off
+ * so the battery current goes to the motors. It comes back on when the drive
+ * current drops, or right away if we have used enough air that the arms might
+ * not move.
+ */
+public class PneumaticsSubsystem extends SubsystemBase {
+    // The compressor's PCM. Check against the robot's wiring.
+    public static final int COMPRESSOR_MODULE = 0;
+
+    // Drive RMS current, summed over the four motors, to turn the compressor
+    // off above and back on below
+    private static final double HOLD_OFF_DRIVE_CURRENT = 120;
+    private static final double RESUME_DRIVE_CURRENT = 60;
+    // Free air used since full above which the compressor always runs. About
+    // ten arm actuations, well before the tanks are too low to move the arms.
+    private static final double RESERVE_LITERS = 2.0;
+
+    private static final int MAX_SOLENOIDS = 8;
+    private static final int SLOW_PERIOD_CYCLES = 10;
+
+    private final Compressor compressor;
+    private final PowerDistributionPanelSubsystem pdp;
+    private final int profilerSlot;
+
+    // Per registered solenoid
+    private final double[] litersPerActuation = new double[MAX_SOLENOIDS];
+    private final int[] actuations = new int[MAX_SOLENOIDS];
+    private int solenoidCount = 0;
+
+    private double totalLiters = 0;
+    private double litersSinceFull = 0;
+    private boolean heldOff = false;
+    private final BooleanLogEntry heldOffLog = new BooleanLogEntry(DataLogManager.getLog(),
+            "Pneumatics/Compressor Held Off");
+
+    private final TelemetryPublisher telemetry = new TelemetryPublisher();
+
+    /**
+     * @param pdp the PDP, for the drive current and the power manager's scale
+     */
+    public PneumaticsSubsystem(PowerDistributionPanelSubsystem pdp) {
+        this.pdp = pdp;
+        compressor = new Compressor(COMPRESSOR_MODULE, PneumaticsModuleType.CTREPCM);
+        compressor.enableDigital();
+        addChild("Compressor", compressor);
+        profilerSlot = LoopProfiler.getInstance().register(getName());
+
+        telemetry.addBoolean("Pneumatics/Compressor Held Off", () -> heldOff);
+        telemetry.addBoolean("Pneumatics/Compressor Running", compressor::isEnabled, SLOW_PERIOD_CYCLES);
+        telemetry.addDouble("Pneumatics/Compressor Current (A)", compressor::getCurrent, 0.5, SLOW_PERIOD_CYCLES);
+        telemetry.addDouble("Pneumatics/Air Used (L)", () -> totalLiters, 0.01);
+        telemetry.addDouble("Pneumatics/Air Since Full (L)", () -> litersSinceFull, 0.01);
+    }
+
+    /**
+     * Register a solenoid so its air use is tracked
+     *
+     * @param name               the solenoid's name on the dashboard
+     * @param litersPerActuation the free air one switch of the solenoid uses
+     * @return the slot to pass to {@link #recordActuation(int)}
+     */
+    public int registerSolenoid(String name, double litersPerActuation) {
+        if (solenoidCount == MAX_SOLENOIDS) {
+            throw new IllegalStateException("Too many solenoids registered");
+        }
+        int slot = solenoidCount++;
+        this.litersPerActuation[slot] = litersPerActuation;
+        telemetry.addDouble("Pneumatics/" + name + " Actuations", () -> actuations[slot], 0.5);
+        return slot;
+    }
+
+    /**
+     * Record that a solenoid switched. Solenoids don't move while disabled, so
+     * those switches are ignored.
+     *
+     * @param slot the slot from {@link #registerSolenoid(String, double)}
+     */
+    public void recordActuation(int slot) {
+        if (DriverStation.isDisabled()) {
+            return;
+        }
+        actuations[slot]++;
+        totalLiters += litersPerActuation[slot];
+        litersSinceFull += litersPerActuation[slot];
+    }
+
+    @Override
+    public void periodic() {
+        LoopProfiler.getInstance().start(profilerSlot);
+        // The switch reads true until the tanks reach 120 psi
+        if (!compressor.getPressureSwitchValue()) {
+            litersSinceFull = 0;
+        }
+        updateHoldOff();
+        telemetry.update();
+        LoopProfiler.getInstance().stop(profilerSlot);
+    }
+
+    private void updateHoldOff() {
+        double driveCurrent = pdp.getRmsCurrent(PowerDistributionPanelSubsystem.LEFT_MAIN_CHANNEL)
+                + pdp.getRmsCurrent(PowerDistributionPanelSubsystem.LEFT_FOLLOWER_CHANNEL)
+                + pdp.getRmsCurrent(PowerDistributionPanelSubsystem.RIGHT_MAIN_CHANNEL)
+                + pdp.getRmsCurrent(PowerDistributionPanelSubsystem.RIGHT_FOLLOWER_CHANNEL);
+        boolean highDemand = heldOff ? driveCurrent > RESUME_DRIVE_CURRENT : driveCurrent > HOLD_OFF_DRIVE_CURRENT;
+        boolean holdOff = (highDemand || pdp.getScale() < 1) && litersSinceFull < RESERVE_LITERS;
+        if (holdOff != heldOff) {
+            heldOff = holdOff;
+            heldOffLog.append(heldOff);
+            if (heldOff) {
+                compressor.disable();
+            } else {
+                compressor.enableDigital();
+            }
+        }
+    }
+
+    /**
+     * @param slot the slot from {@link #registerSolenoid(String, double)}
+     * @return how many times the solenoid has switched while enabled
+     */
+    public int getActuations(int slot) {
+        return actuations[slot];
+    }
+
+    /**
+     * @return the estimated free air used since the pressure switch last read
+     *         full, in liters
+     */
+    public double getLitersSinceFull() {
+        return litersSinceFull;
+    }
+
+    /**
+     * @return whether the compressor is turned off to save current for the
+     *         drivetrain
+     */
+    public boolean isHeldOff() {
+        return heldOff;
+    }
+}
@@ -0,0 +1,89 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A fixed-size history of timestamped robot poses, for looking up where the
+ * robot was when a delayed measurement was taken.
+ *
+ * Poses are stored in preallocated primitive arrays, so recording doesn't
+ * allocate. Written by the drive sampler thread and read by the main thread.
+ */
+public class PoseHistory {
+    private final double[] timestamps;
+    private final double[] x;
+    private final double[] y;
+    private final double[] heading;
+    private int newest = -1;
+    private int size = 0;
+
+    /**
+     * @param capacity how many poses to keep
+     */
+    PoseHistory(int capacity) {
+        timestamps = new double[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        heading = new double[capacity];
+    }
+
+    /**
+     * Record a pose
+     *
+     * @param timestamp the FPGA time of the pose, in seconds
+     * @param poseX     x in meters
+     * @param poseY     y in meters
+     * @param radians   heading in radians
+     */
+    synchronized void add(double timestamp, double poseX, double poseY, double radians) {
+        newest = (newest + 1) % timestamps.length;
+        timestamps[newest] = timestamp;
+        x[newest] = poseX;
+        y[newest] = poseY;
+        heading[newest] = radians;
+        size = Math.min(size + 1, timestamps.length);
+    }
+
+    /**
+     * Forget all recorded poses, e.g. after the pose is reset
+     */
+    synchronized void clear() {
+        newest = -1;
+        size = 0;
+    }
+
+    /**
+     * Get the robot's pose at a time, interpolating between recorded poses.
+     * Times outside the history return the oldest or newest pose.
+     *
+     * @param timestamp the FPGA time in seconds
+     * @return the pose at that time, or null if nothing has been recorded
+     */
+    public synchronized Pose2d getPose(double timestamp) {
+        if (size == 0) {
+            return null;
+        }
+        // Walk back from the newest pose to the first one at or before the timestamp
+        int after = newest;
+        for (int i = 0; i < size; i++) {
+            int index = Math.floorMod(newest - i, timestamps.length);
+            if (timestamps[index] <= timestamp) {
+                if (index == after) {
+                    return poseAt(index);
+                }
+                double t = (timestamp - timestamps[index]) / (timestamps[after] - timestamps[index]);
+                double angle = heading[index] + t * MathUtil.angleModulus(heading[after] - heading[index]);
+                return new Pose2d(MathUtil.interpolate(x[index], x[after], t),
+                        MathUtil.interpolate(y[index], y[after], t), new Rotation2d(angle));
+            }
+            after = index;
+        }
+        return poseAt(after);
+    }
+
+    private Pose2d poseAt(int index) {
+        return new Pose2d(x[index], y[index], new Rotation2d(heading[index]));
+    }
+}
@@ -2,26 +2,201 @@ package frc.robot.subsystems;
 
 import java.lang.Math;
 
-import edu.wpi.first.wpilibj.PowerDistribution;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.hardware.BulkPowerDistribution;
+import frc.robot.telemetry.LoopProfiler;
+import frc.robot.telemetry.RecordFields;
+import frc.robot.telemetry.TelemetryPublisher;
 
+/**
+ * Reports the robot's power use and keeps the battery voltage away from the
+ * roboRIO's brownout threshold.
+ *
+ * Every cycle the battery voltage and total current update a
+ * {@link BatteryModel}. From its resistance estimate we work out how much
+ * current the robot can draw before the voltage sags below a safe level. When
+ * the robot draws more than that, the drive stator current limit and the
+ * conveyor and roller outputs are scaled down together. The scale drops right
+ * away and recovers slowly, so the limit doesn't oscillate in a pushing match.
+ *
+ * The PDP only sends its measurements every 25 ms or so, so sampling faster
+ * than the robot loop wouldn't see new data.
+ *
+ * All channel currents are also read in one call each cycle, kept in a
+ * one-second history for RMS and peak currents per device, and logged as one
+ * record.
+ */
 public class PowerDistributionPanelSubsystem extends SubsystemBase {
-    private final PowerDistribution powerDistributionPanel;
+    private final BulkPowerDistribution powerDistributionPanel;
+    private final int profilerSlot;
 
-    public PowerDistributionPanelSubsystem(PowerDistribution powerDistributionPanel) {
+    // PDP channels of the devices we report on. Check against the robot's wiring.
+    public static final int LEFT_MAIN_CHANNEL = 0; // CAN 1
+    public static final int LEFT_FOLLOWER_CHANNEL = 1; // CAN 2
+    public static final int RIGHT_MAIN_CHANNEL = 15; // CAN 3
+    public static final int RIGHT_FOLLOWER_CHANNEL = 14; // CAN 4
+    public static final int CONVEYOR_CHANNEL = 4; // CAN 5
+    public static final int INTAKE_ROLLERS_CHANNEL = 11; // CAN 6
+    private static final int[] DEVICE_CHANNELS = { LEFT_MAIN_CHANNEL, LEFT_FOLLOWER_CHANNEL, RIGHT_MAIN_CHANNEL,
+            RIGHT_FOLLOWER_CHANNEL, CONVEYOR_CHANNEL, INTAKE_ROLLERS_CHANNEL };
+    private static final String[] DEVICE_NAMES = { "Left Main", "Left Follower", "Right Main", "Right Follower",
+            "Conveyor", "Intake Rollers" };
+    // One second of cycles
+    private static final int HISTORY_WINDOW = 50;
+    private static final int DEVICE_PERIOD_CYCLES = 10;
+
+    private final double[] channelCurrents;
+    private final ChannelCurrentHistory currentHistory;
+    // Every channel's current for the cycle, as one record
+    private final DoubleArrayLogEntry currentsLog;
+
+    // The roboRIO browns out at 6.75 V. Keep a margin above that.
+    private static final double MIN_VOLTAGE = 7.5;
+    // How far ahead to predict the current. 5 cycles = 100 ms, about how
+    // long the drive takes to reach a new stator current limit.
+    private static final int LOOKAHEAD_CYCLES = 5;
+    // Never scale below this, so the robot can still move
+    private static final double MIN_SCALE = 0.4;
+    // Largest increase of the scale per cycle, so it recovers over about 1.5 s
+    private static final double SCALE_RECOVERY_PER_CYCLE = 0.02;
+
+    private final DriveSubsystem drive;
+    private final ConveyorSubsystem conveyor;
+    private final IntakeRollersSubsystem intakeRollers;
+    private final BatteryModel battery = new BatteryModel();
+    private double voltage = 12;
+    private double totalCurrent = 0;
+    private double scale = 1;
+    private final DoubleLogEntry scaleLog = new DoubleLogEntry(DataLogManager.getLog(), "Power/Scale");
+
+    // Dashboard values, only published when they change
+    private final TelemetryPublisher telemetry = new TelemetryPublisher();
+    // Temperature and energy change slowly, so only read them once a second
+    private static final int SLOW_PERIOD_CYCLES = 50;
+
+    /**
+     * @param powerDistributionPanel the PDP
+     * @param drive                  the drivetrain, whose current limit is scaled
+     * @param conveyor               the conveyor, whose output is scaled
+     * @param intakeRollers          the intake rollers, whose output is scaled
+     */
+    public PowerDistributionPanelSubsystem(BulkPowerDistribution powerDistributionPanel, DriveSubsystem drive,
+            ConveyorSubsystem conveyor, IntakeRollersSubsystem intakeRollers) {
         this.powerDistributionPanel = powerDistributionPanel;
+        this.drive = drive;
+        this.conveyor = conveyor;
+        this.intakeRollers = intakeRollers;
         addChild("PDP", powerDistributionPanel);
+        profilerSlot = LoopProfiler.getInstance().register(getName());
+
+        int channels = powerDistributionPanel.getNumChannels();
+        channelCurrents = new double[channels];
+        currentHistory = new ChannelCurrentHistory(channels, HISTORY_WINDOW);
+        currentsLog = new DoubleArrayLogEntry(DataLogManager.getLog(), "PDP/Channel Currents",
+                RecordFields.format(getChannelFieldNames(channels)));
+
+        //Each subsystem will be given an id in each subsystem class
+        //Channels are numbered 0 to 15 because there are 16 channels on the PDP
+        telemetry.addDouble("PDP Temperature (C)", () -> Math.round(this.powerDistributionPanel.getTemperature()), 0.5, SLOW_PERIOD_CYCLES);
+        telemetry.addDouble("PDP Total Current (A)", () -> Math.round(totalCurrent), 0.5);
+        telemetry.addDouble("PDP Total Power (W)", this.powerDistributionPanel::getTotalPower, 1);
+        telemetry.addDouble("PDP Total Energy (J)", this.powerDistributionPanel::getTotalEnergy, 1, SLOW_PERIOD_CYCLES);
+        // Power management
+        telemetry.addDouble("Power/Battery Resistance (mOhm)", () -> 1000 * battery.getResistance(), 0.5, SLOW_PERIOD_CYCLES);
+        telemetry.addDouble("Power/Open Circuit Voltage (V)", battery::getOpenCircuitVoltage, 0.05, SLOW_PERIOD_CYCLES);
+        telemetry.addDouble("Power/Scale", () -> scale, 0.01);
+        telemetry.addBoolean("Power/Browned Out", RobotController::isBrownedOut);
+        // Per-device current
+        for (int i = 0; i < DEVICE_CHANNELS.length; i++) {
+            int channel = DEVICE_CHANNELS[i];
+            telemetry.addDouble("PDP/" + DEVICE_NAMES[i] + " RMS (A)", () -> currentHistory.getRms(channel), 0.5,
+                    DEVICE_PERIOD_CYCLES);
+        }
+    }
+
+    /**
+     * Name each channel for the log, using the device name where we have one
+     */
+    private static String[] getChannelFieldNames(int channels) {
+        String[] names = new String[channels];
+        for (int channel = 0; channel < channels; channel++) {
+            names[channel] = "PDP Channel " + channel + " Current";
+        }
+        for (int i = 0; i < DEVICE_CHANNELS.length; i++) {
+            names[DEVICE_CHANNELS[i]] = "PDP " + DEVICE_NAMES[i] + " Current";
+        }
+        return names;
     }
 
     @Override
     public void periodic() {
-        //Each subsystem will be given an id in each subsystem class
-        //Channels are numbered 0 to 15 because there are 16 channels on the PDP
-        SmartDashboard.putNumber("PDP Temperature (C)", Math.round(this.powerDistributionPanel.getTemperature()));
-        SmartDashboard.putNumber("PDP Total Current (A)", Math.round(this.powerDistributionPanel.getTotalCurrent()));
-        SmartDashboard.putNumber("PDP Total Power (W)", this.powerDistributionPanel.getTotalPower());
-        SmartDashboard.putNumber("PDP Total Energy (J)", this.powerDistributionPanel.getTotalEnergy());
+        LoopProfiler.getInstance().start(profilerSlot);
+        voltage = RobotController.getBatteryVoltage();
+        totalCurrent = powerDistributionPanel.getTotalCurrent();
+        battery.update(voltage, totalCurrent);
+        updateScale();
+
+        powerDistributionPanel.getAllCurrents(channelCurrents);
+        currentHistory.add(channelCurrents);
+        currentsLog.append(channelCurrents);
+
+        telemetry.update();
+        LoopProfiler.getInstance().stop(profilerSlot);
+    }
+
+    /**
+     * Scale the loads so the current expected over the next few cycles stays
+     * under what the battery can supply above MIN_VOLTAGE
+     */
+    private void updateScale() {
+        double allowed = battery.getAllowedFraction(MIN_VOLTAGE, LOOKAHEAD_CYCLES);
+        double target = scale;
+        if (allowed < 1) {
+            // The loads draw roughly in proportion to the scale
+            target = scale * allowed;
+        } else if (voltage > MIN_VOLTAGE) {
+            target = 1;
+        }
+        double newScale = MathUtil.clamp(Math.min(target, scale + SCALE_RECOVERY_PER_CYCLE), MIN_SCALE, 1);
+        if (newScale != scale) {
+            scale = newScale;
+            scaleLog.append(scale);
+            drive.setCurrentLimitScale(scale);
+            conveyor.setOutputScale(scale);
+            intakeRollers.setOutputScale(scale);
+        }
+    }
+
+    /**
+     * Get the RMS current of a channel over the last second
+     *
+     * @param channel the PDP channel, e.g. {@link #CONVEYOR_CHANNEL}
+     * @return the RMS current, in amps
+     */
+    public double getRmsCurrent(int channel) {
+        return currentHistory.getRms(channel);
+    }
+
+    /**
+     * Get the peak current of a channel over the last second
+     *
+     * @param channel the PDP channel, e.g. {@link #CONVEYOR_CHANNEL}
+     * @return the peak current, in amps
+     */
+    public double getPeakCurrent(int channel) {
+        return currentHistory.getPeak(channel);
+    }
+
+    /**
+     * @return the fraction of full power the loads are allowed, in [0.4, 1]
+     */
+    public double getScale() {
+        return scale;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package frc.robot.telemetry;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Times the steps of a scoring or intake sequence.
+ *
+ * A sequence marks when it starts, when a beam break sees the piece, when the
+ * arm moves and when it's done. Each mark goes to the "Cycles/Events" DataLog
+ * entry as "name:EVENT", at the time it happened. When the sequence is done,
+ * its step times are written as one record to "Cycles/name", with field names
+ * the log tools understand, and added to a summary for the match that is
+ * published to the "Cycles" NetworkTables table.
+ *
+ * Commands are created more than once (autonomous routines build their own),
+ * so there is one timer per sequence name, shared by every instance.
+ */
+public class CycleTimer {
+    public enum Event {
+        START,
+        SENSOR,
+        ARM_MOVED,
+        DONE
+    }
+
+    // Field indexes of the cycle record
+    public static final int TOTAL = 0;
+    public static final int TO_SENSOR = 1;
+    public static final int TO_ARM = 2;
+    public static final int INTERRUPTED = 3;
+    private static final String[] FIELD_SUFFIXES = { " Total (s)", " To Sensor (s)", " To Arm (s)", " Interrupted" };
+    // Prefix of every cycle field name, so log tools can find them
+    public static final String FIELD_PREFIX = "Cycle ";
+
+    // More cycles than fit in a match
+    private static final int MAX_CYCLES = 128;
+    private static final String TABLE_NAME = "Cycles";
+
+    private static final HashMap<String, CycleTimer> timers = new HashMap<>();
+    private static StringLogEntry eventLog;
+    // While true, nothing is timed or logged, e.g. during JIT warm-up
+    private static boolean muted = false;
+
+    private final String name;
+    private final String[] eventNames = new String[Event.values().length];
+    private final DoubleArrayLogEntry cycleLog;
+    private final double[] record = new double[FIELD_SUFFIXES.length];
+
+    // Step times of the cycle in progress, in FPGA seconds
+    private double startTime = Double.NaN;
+    private double sensorTime = Double.NaN;
+    private double armTime = Double.NaN;
+
+    // Completed cycle times this match, for the summary
+    private final double[] totals = new double[MAX_CYCLES];
+    private final double[] sorted = new double[MAX_CYCLES];
+    private int count = 0;
+    private final IntegerPublisher countPublisher;
+    private final DoublePublisher medianPublisher;
+    private final DoublePublisher p90Publisher;
+
+    private CycleTimer(String name) {
+        this.name = name;
+        for (Event event : Event.values()) {
+            eventNames[event.ordinal()] = name + ":" + event;
+        }
+        String[] fields = new String[FIELD_SUFFIXES.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = FIELD_PREFIX + name + FIELD_SUFFIXES[i];
+        }
+        cycleLog = new DoubleArrayLogEntry(DataLogManager.getLog(), TABLE_NAME + "/" + name,
+                RecordFields.format(fields));
+
+        NetworkTable table = NetworkTableInstance.getDefault().getTable(TABLE_NAME).getSubTable(name);
+        countPublisher = table.getIntegerTopic("Count").publish();
+        medianPublisher = table.getDoubleTopic("Median (s)").publish();
+        p90Publisher = table.getDoubleTopic("P90 (s)").publish();
+        countPublisher.set(0);
+    }
+
+    /**
+     * Get the timer for a sequence, creating it the first time
+     *
+     * @param name the sequence name, e.g. "IntakeFromFloor"
+     * @return the sequence's timer
+     */
+    public static CycleTimer get(String name) {
+        if (eventLog == null) {
+            eventLog = new StringLogEntry(DataLogManager.getLog(), TABLE_NAME + "/Events");
+        }
+        return timers.computeIfAbsent(name, CycleTimer::new);
+    }
+
+    /**
+     * Clear every sequence's summary, e.g. at the start of a match
+     */
+    public static void resetAll() {
+        for (CycleTimer timer : timers.values()) {
+            timer.count = 0;
+            timer.countPublisher.set(0);
+        }
+    }
+
+    /**
+     * Stop or resume timing every sequence, so commands can be run without
+     * recording cycles
+     *
+     * @param muted whether to ignore starts, marks and ends
+     */
+    public static void setMuted(boolean muted) {
+        CycleTimer.muted = muted;
+    }
+
+    /**
+     * Mark the start of a cycle
+     */
+    public void start() {
+        if (muted) {
+            return;
+        }
+        startTime = Timer.getFPGATimestamp();
+        sensorTime = Double.NaN;
+        armTime = Double.NaN;
+        log(Event.START, startTime);
+    }
+
+    /**
+     * Mark a step of the cycle now
+     *
+     * @param event the step
+     */
+    public void mark(Event event) {
+        mark(event, Timer.getFPGATimestamp());
+    }
+
+    /**
+     * Mark a step of the cycle at the time it happened, e.g. a sensor interrupt.
+     * Ignored outside a cycle, or if it happened before the cycle started, as
+     * when the sensor was already blocked.
+     *
+     * @param event     {@link Event#SENSOR} or {@link Event#ARM_MOVED}
+     * @param timestamp when it happened, in FPGA seconds
+     */
+    public void mark(Event event, double timestamp) {
+        if (muted || Double.isNaN(startTime) || timestamp < startTime) {
+            return;
+        }
+        if (event == Event.SENSOR) {
+            sensorTime = timestamp;
+        } else if (event == Event.ARM_MOVED) {
+            armTime = timestamp;
+        }
+        log(event, timestamp);
+    }
+
+    /**
+     * Mark the end of the cycle and record it. Cycles that were interrupted
+     * are logged but left out of the summary.
+     *
+     * @param interrupted whether the sequence was interrupted
+     */
+    public void done(boolean interrupted) {
+        if (muted || Double.isNaN(startTime)) {
+            return;
+        }
+        double now = Timer.getFPGATimestamp();
+        log(Event.DONE, now);
+        record[TOTAL] = now - startTime;
+        record[TO_SENSOR] = sensorTime - startTime;
+        record[TO_ARM] = armTime - startTime;
+        record[INTERRUPTED] = interrupted ? 1 : 0;
+        cycleLog.append(record);
+        startTime = Double.NaN;
+
+        if (!interrupted && count < MAX_CYCLES) {
+            totals[count++] = record[TOTAL];
+            publishSummary();
+        }
+    }
+
+    private void publishSummary() {
+        System.arraycopy(totals, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        countPublisher.set(count);
+        medianPublisher.set(percentile(sorted, count, 0.5));
+        p90Publisher.set(percentile(sorted, count, 0.9));
+    }
+
+    private void log(Event event, double timestamp) {
+        eventLog.append(eventNames[event.ordinal()], (long) (timestamp * 1e6));
+    }
+
+    /**
+     * @return the sequence name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values
+     *
+     * @param sorted values in ascending order
+     * @param count  the number of values to use from the start of the array
+     * @param p      the percentile, in [0, 1]
+     * @return the percentile, or NaN if there are no values
+     */
+    public static double percentile(double[] sorted, int count, double p) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        int rank = (int) Math.ceil(p * count);
+        return sorted[Math.max(0, Math.min(count, rank) - 1)];
+    }
+}
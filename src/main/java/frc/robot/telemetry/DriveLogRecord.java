@@ -0,0 +1,80 @@
+package frc.robot.telemetry;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+
+/**
+ * Writes all drivetrain samples for a cycle as a single DataLog record.
+ *
+ * The record is a double[] with one value per field in {@link #FIELDS}. The
+ * field names are stored in the entry's metadata in the {@link RecordFields}
+ * format, so log readers can split the record back into the per-motor values
+ * the old separate entries ("Right Main Current", ...) used to hold.
+ */
+public class DriveLogRecord {
+    public static final String ENTRY_NAME = "Drive/Samples";
+
+    // Field indexes
+    public static final int LEFT_MAIN_CURRENT = 0;
+    public static final int LEFT_FOLLOWER_CURRENT = 1;
+    public static final int RIGHT_MAIN_CURRENT = 2;
+    public static final int RIGHT_FOLLOWER_CURRENT = 3;
+    public static final int LEFT_MAIN_SPEED = 4;
+    public static final int LEFT_FOLLOWER_SPEED = 5;
+    public static final int RIGHT_MAIN_SPEED = 6;
+    public static final int RIGHT_FOLLOWER_SPEED = 7;
+    public static final int LEFT_POSITION = 8;
+    public static final int RIGHT_POSITION = 9;
+
+    // Field names, in record order. The current and speed names match the old separate entries.
+    private static final String[] FIELDS = {
+            "Left Main Current",
+            "Left Follower Current",
+            "Right Main Current",
+            "Right Follower Current",
+            "Left Main Speed",
+            "Left Follower Speed",
+            "Right Main Speed",
+            "Right Follower Speed",
+            "Left Position",
+            "Right Position"
+    };
+    public static final int FIELD_COUNT = FIELDS.length;
+
+    private final DoubleArrayLogEntry entry;
+    private final double[] values = new double[FIELD_COUNT];
+
+    /**
+     * @param log the DataLog to write to
+     */
+    public DriveLogRecord(DataLog log) {
+        entry = new DoubleArrayLogEntry(log, ENTRY_NAME, RecordFields.format(FIELDS));
+    }
+
+    /**
+     * Set a field for the current cycle
+     *
+     * @param field one of the field indexes, e.g. {@link #LEFT_MAIN_CURRENT}
+     * @param value the value
+     */
+    public void set(int field, double value) {
+        values[field] = value;
+    }
+
+    /**
+     * Write the current cycle's fields as one record
+     */
+    public void append() {
+        entry.append(values);
+    }
+
+    /**
+     * Get the name of a field
+     *
+     * @param field a field index
+     * @return the field's name
+     */
+    public static String getFieldName(int field) {
+        return FIELDS[field];
+    }
+}
@@ -0,0 +1,182 @@
+package frc.robot.telemetry;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj2.command.Command;
+
+/**
+ * Records how long each part of the 20 ms robot loop takes.
+ *
+ * Every timed section (the whole cycle, each subsystem's periodic() and each
+ * scheduled command's execute()) gets a slot with a rolling window of samples.
+ * Once a second the p50, p99 and max of each window are written to the DataLog
+ * and to the "LoopProfiler" NetworkTables table, in microseconds.
+ *
+ * All storage is allocated when a slot is registered, so recording and
+ * publishing do not allocate and can't cause the GC pauses we are looking for.
+ */
+public final class LoopProfiler {
+    private static final int MAX_SLOTS = 32;
+    // 250 samples = 5 seconds of 20 ms cycles
+    private static final int WINDOW = 250;
+    // Publish once a second
+    private static final int PUBLISH_PERIOD_CYCLES = 50;
+    private static final String TABLE_NAME = "LoopProfiler";
+
+    private static LoopProfiler instance;
+
+    private final NetworkTable table = NetworkTableInstance.getDefault().getTable(TABLE_NAME);
+    // Keyed by name, so command groups built anew each time share a slot. Never
+    // grows past MAX_SLOTS entries.
+    private final HashMap<String, Integer> commandSlots = new HashMap<>();
+
+    private final long[][] samples = new long[MAX_SLOTS][WINDOW];
+    private final int[] sampleCount = new int[MAX_SLOTS];
+    private final int[] nextSample = new int[MAX_SLOTS];
+    private final long[] startTimes = new long[MAX_SLOTS];
+    private final DoubleArrayPublisher[] publishers = new DoubleArrayPublisher[MAX_SLOTS];
+    private final DoubleArrayLogEntry[] logEntries = new DoubleArrayLogEntry[MAX_SLOTS];
+    private int slotCount = 0;
+
+    // Scratch space used while publishing
+    private final long[] sorted = new long[WINDOW];
+    private final double[] stats = new double[3];
+
+    private final int cycleSlot;
+    private final int otherCommandsSlot;
+    private long lastMark;
+    private int cyclesSincePublish = 0;
+
+    private LoopProfiler() {
+        cycleSlot = register("Cycle");
+        // Shared by any commands seen after all slots are taken
+        otherCommandsSlot = register("Commands/Other");
+    }
+
+    /**
+     * Get the robot's loop profiler
+     *
+     * @return the LoopProfiler instance
+     */
+    public static LoopProfiler getInstance() {
+        if (instance == null) {
+            instance = new LoopProfiler();
+        }
+        return instance;
+    }
+
+    /**
+     * Register a timed section. Should be called once, at construction time.
+     *
+     * @param name the name published to the DataLog and dashboard
+     * @return the slot to pass to {@link #start(int)} and {@link #stop(int)}
+     */
+    public int register(String name) {
+        if (slotCount == MAX_SLOTS) {
+            return otherCommandsSlot;
+        }
+        int slot = slotCount++;
+        publishers[slot] = table.getDoubleArrayTopic(name).publish();
+        logEntries[slot] = new DoubleArrayLogEntry(DataLogManager.getLog(), TABLE_NAME + "/" + name);
+        return slot;
+    }
+
+    /**
+     * Mark the start of a timed section
+     *
+     * @param slot the section's slot
+     */
+    public void start(int slot) {
+        startTimes[slot] = System.nanoTime();
+    }
+
+    /**
+     * Mark the end of a timed section and record its duration
+     *
+     * @param slot the section's slot
+     */
+    public void stop(int slot) {
+        long now = System.nanoTime();
+        record(slot, now - startTimes[slot]);
+        lastMark = now;
+    }
+
+    /**
+     * Call at the start of robotPeriodic()
+     */
+    public void beginCycle() {
+        start(cycleSlot);
+        lastMark = startTimes[cycleSlot];
+    }
+
+    /**
+     * Call at the end of robotPeriodic(). Publishes the statistics once a second.
+     */
+    public void endCycle() {
+        stop(cycleSlot);
+        if (++cyclesSincePublish >= PUBLISH_PERIOD_CYCLES) {
+            cyclesSincePublish = 0;
+            publish();
+        }
+    }
+
+    /**
+     * Record a command's execute() time. Meant to be registered with
+     * CommandScheduler.onCommandExecute(), which runs right after each execute().
+     * The scheduler doesn't tell us when execute() starts, so the time is measured
+     * from the previous mark and also includes the previous command's isFinished()
+     * and, for the first command, trigger polling.
+     *
+     * Commands with the same name share a slot. Commands seen after all slots
+     * are taken are recorded together under "Commands/Other".
+     *
+     * @param command the command that just executed
+     */
+    public void recordCommand(Command command) {
+        long now = System.nanoTime();
+        String name = command.getName();
+        Integer slot = commandSlots.get(name);
+        if (slot == null) {
+            if (slotCount == MAX_SLOTS) {
+                // Out of slots, so don't remember the name either
+                slot = otherCommandsSlot;
+            } else {
+                slot = register("Commands/" + name);
+                commandSlots.put(name, slot);
+            }
+        }
+        record(slot, now - lastMark);
+        lastMark = now;
+    }
+
+    private void record(int slot, long nanos) {
+        samples[slot][nextSample[slot]] = nanos;
+        nextSample[slot] = (nextSample[slot] + 1) % WINDOW;
+        if (sampleCount[slot] < WINDOW) {
+            sampleCount[slot]++;
+        }
+    }
+
+    private void publish() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            int count = sampleCount[slot];
+            if (count == 0) {
+                continue;
+            }
+            System.arraycopy(samples[slot], 0, sorted, 0, count);
+            // Sorting a primitive array this small doesn't allocate
+            Arrays.sort(sorted, 0, count);
+            stats[0] = sorted[(count - 1) / 2] / 1000.0;
+            stats[1] = sorted[(int) ((count - 1) * 0.99)] / 1000.0;
+            stats[2] = sorted[count - 1] / 1000.0;
+            publishers[slot].set(stats);
+            logEntries[slot].append(stats);
+        }
+    }
+}
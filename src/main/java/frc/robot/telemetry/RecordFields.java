@@ -0,0 +1,40 @@
+package frc.robot.telemetry;
+
+/**
+ * The metadata format for double[] log entries that hold several named values
+ * per record.
+ *
+ * The field names are stored in the entry's metadata as "fields=a,b,c", in
+ * record order, so log readers can split each record back into one series per
+ * field. Used by the drivetrain, PDP and cycle time records, and by the log
+ * tools that read them.
+ */
+public final class RecordFields {
+    private static final String METADATA_PREFIX = "fields=";
+
+    private RecordFields() {
+    }
+
+    /**
+     * Write field names as entry metadata
+     *
+     * @param fields the field names in record order
+     * @return the entry metadata
+     */
+    public static String format(String... fields) {
+        return METADATA_PREFIX + String.join(",", fields);
+    }
+
+    /**
+     * Read the field names out of an entry's metadata
+     *
+     * @param metadata the entry metadata
+     * @return the field names in record order, or null if the metadata has no schema
+     */
+    public static String[] parse(String metadata) {
+        if (metadata == null || !metadata.startsWith(METADATA_PREFIX)) {
+            return null;
+        }
+        return metadata.substring(METADATA_PREFIX.length()).split(",");
+    }
+}
@@ -0,0 +1,155 @@
+package frc.robot.telemetry;
+
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Publishes dashboard values only when they change.
+ *
+ * Signals are declared once, at construction time, with a source to read from.
+ * The NetworkTables publisher for each key is created up front, so
+ * {@link #update()} doesn't look anything up by name. A double is only sent
+ * when it moves by more than its deadband, and slow signals (temperatures,
+ * energy) can be sampled every few cycles so their source isn't read every loop.
+ */
+public class TelemetryPublisher {
+    // Default table, so existing dashboard layouts keep working
+    private static final String DEFAULT_TABLE = "SmartDashboard";
+
+    private final NetworkTable table;
+    private final ArrayList<DoubleSignal> doubleSignals = new ArrayList<>();
+    private final ArrayList<BooleanSignal> booleanSignals = new ArrayList<>();
+
+    public TelemetryPublisher() {
+        this(DEFAULT_TABLE);
+    }
+
+    /**
+     * @param tableName the NetworkTables table to publish to
+     */
+    public TelemetryPublisher(String tableName) {
+        table = NetworkTableInstance.getDefault().getTable(tableName);
+    }
+
+    /**
+     * Add a number that is read and published every cycle
+     *
+     * @param key      the dashboard key
+     * @param source   where to read the value from
+     * @param deadband the smallest change worth publishing
+     */
+    public void addDouble(String key, DoubleSupplier source, double deadband) {
+        addDouble(key, source, deadband, 1);
+    }
+
+    /**
+     * Add a number that is read and published every few cycles
+     *
+     * @param key          the dashboard key
+     * @param source       where to read the value from
+     * @param deadband     the smallest change worth publishing
+     * @param periodCycles how many update() calls between reads of the source
+     */
+    public void addDouble(String key, DoubleSupplier source, double deadband, int periodCycles) {
+        doubleSignals.add(new DoubleSignal(table.getDoubleTopic(key).publish(), source, deadband, periodCycles));
+    }
+
+    /**
+     * Add a boolean that is published when it changes
+     *
+     * @param key    the dashboard key
+     * @param source where to read the value from
+     */
+    public void addBoolean(String key, BooleanSupplier source) {
+        addBoolean(key, source, 1);
+    }
+
+    /**
+     * Add a boolean that is read every few cycles and published when it changes
+     *
+     * @param key          the dashboard key
+     * @param source       where to read the value from
+     * @param periodCycles how many update() calls between reads of the source
+     */
+    public void addBoolean(String key, BooleanSupplier source, int periodCycles) {
+        booleanSignals.add(new BooleanSignal(table.getBooleanTopic(key).publish(), source, periodCycles));
+    }
+
+    /**
+     * Read the signals that are due and publish the ones that changed. Call once
+     * per periodic().
+     */
+    public void update() {
+        // Indexed loops so no iterators are allocated
+        for (int i = 0; i < doubleSignals.size(); i++) {
+            doubleSignals.get(i).update();
+        }
+        for (int i = 0; i < booleanSignals.size(); i++) {
+            booleanSignals.get(i).update();
+        }
+    }
+
+    private static class DoubleSignal {
+        private final DoublePublisher publisher;
+        private final DoubleSupplier source;
+        private final double deadband;
+        private final int periodCycles;
+        private int cyclesUntilRead = 0;
+        private boolean published = false;
+        private double lastValue;
+
+        DoubleSignal(DoublePublisher publisher, DoubleSupplier source, double deadband, int periodCycles) {
+            this.publisher = publisher;
+            this.source = source;
+            this.deadband = deadband;
+            this.periodCycles = Math.max(1, periodCycles);
+        }
+
+        void update() {
+            if (--cyclesUntilRead > 0) {
+                return;
+            }
+            cyclesUntilRead = periodCycles;
+            double value = source.getAsDouble();
+            if (!published || Math.abs(value - lastValue) > deadband) {
+                publisher.set(value);
+                lastValue = value;
+                published = true;
+            }
+        }
+    }
+
+    private static class BooleanSignal {
+        private final BooleanPublisher publisher;
+        private final BooleanSupplier source;
+        private final int periodCycles;
+        private int cyclesUntilRead = 0;
+        private boolean published = false;
+        private boolean lastValue;
+
+        BooleanSignal(BooleanPublisher publisher, BooleanSupplier source, int periodCycles) {
+            this.publisher = publisher;
+            this.source = source;
+            this.periodCycles = Math.max(1, periodCycles);
+        }
+
+        void update() {
+            if (--cyclesUntilRead > 0) {
+                return;
+            }
+            cyclesUntilRead = periodCycles;
+            boolean value = source.getAsBoolean();
+            if (!published || value != lastValue) {
+                publisher.set(value);
+                lastValue = value;
+                published = true;
+            }
+        }
+    }
+}
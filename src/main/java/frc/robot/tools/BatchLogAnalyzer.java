@@ -0,0 +1,138 @@
+package frc.robot.tools;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Desktop tool that computes drivetrain statistics across a whole event's
+ * logs.
+ *
+ * Each log is decoded on its own fork-join worker, and the per-log statistics
+ * are merged into event-wide totals, so every core is used. Writes a CSV or
+ * JSON report with one block per match plus an "ALL" block for the event.
+ *
+ * Run with ./gradlew analyzeLogs --args="logs/ --format=json --out=report.json"
+ * Arguments can be wpilog files or directories containing them.
+ */
+public class BatchLogAnalyzer {
+    // Matches the stator current limit in DriveSubsystem.setCurrentLimitEnabled
+    private static final double DEFAULT_CURRENT_LIMIT = 100;
+
+    private BatchLogAnalyzer() {
+    }
+
+    public static void main(String... args) throws IOException {
+        double currentLimit = DEFAULT_CURRENT_LIMIT;
+        boolean json = false;
+        String out = null;
+        List<Path> logs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--current-limit=")) {
+                currentLimit = Double.parseDouble(arg.substring("--current-limit=".length()));
+            } else if (arg.equals("--format=json")) {
+                json = true;
+            } else if (arg.startsWith("--out=")) {
+                out = arg.substring("--out=".length());
+            } else {
+                logs.addAll(findLogs(Paths.get(arg)));
+            }
+        }
+
+        long start = System.nanoTime();
+        final double limit = currentLimit;
+        List<MatchStats> matches = logs.parallelStream()
+                .map(log -> analyze(log, limit))
+                .collect(Collectors.toList());
+        // Merge in a fresh object so the per-match stats are left alone
+        MatchStats event = matches.stream().reduce(new MatchStats("ALL"), (total, match) -> total.merge(match),
+                MatchStats::merge);
+        System.err.printf("Analyzed %d logs in %.0f ms%n", logs.size(), (System.nanoTime() - start) / 1e6);
+
+        matches.add(event);
+        try (PrintStream output = out == null ? System.out : new PrintStream(out)) {
+            if (json) {
+                writeJson(matches, output);
+            } else {
+                writeCsv(matches, output);
+            }
+        }
+    }
+
+    static List<Path> findLogs(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            return files.filter(file -> file.toString().endsWith(".wpilog")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static MatchStats analyze(Path log, double currentLimit) {
+        try {
+            return MatchStats.analyze(log.toString(), currentLimit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsv(List<MatchStats> matches, PrintStream output) {
+        output.println("log,entry,count,min,max,mean,p50,p90,p99,seconds_above_limit,spikes");
+        for (MatchStats match : matches) {
+            for (EntrySummary summary : match.getSummaries().values()) {
+                Histogram histogram = match.getCurrentHistogram(summary.getName());
+                output.printf(Locale.ROOT, "\"%s\",\"%s\",%d,%.3f,%.3f,%.3f,%s,%s,%s,%.3f,%d%n", match.getName(),
+                        summary.getName(), summary.getCount(), summary.getMin(), summary.getMax(), summary.getMean(),
+                        quantile(histogram, 0.5), quantile(histogram, 0.9), quantile(histogram, 0.99),
+                        summary.getSecondsAboveThreshold(), summary.getSpikes());
+            }
+        }
+    }
+
+    private static void writeJson(List<MatchStats> matches, PrintStream output) {
+        output.println("[");
+        for (int m = 0; m < matches.size(); m++) {
+            MatchStats match = matches.get(m);
+            output.printf("  {\"log\": \"%s\", \"entries\": [%n", escape(match.getName()));
+            int e = 0;
+            for (EntrySummary summary : match.getSummaries().values()) {
+                Histogram histogram = match.getCurrentHistogram(summary.getName());
+                output.printf(Locale.ROOT,
+                        "    {\"name\": \"%s\", \"count\": %d, \"min\": %.3f, \"max\": %.3f, \"mean\": %.3f, "
+                        + "\"p50\": %s, \"p90\": %s, \"p99\": %s, \"secondsAboveLimit\": %.3f, \"spikes\": %d}%s%n",
+                        escape(summary.getName()), summary.getCount(), summary.getMin(), summary.getMax(),
+                        summary.getMean(), jsonNumber(quantile(histogram, 0.5)), jsonNumber(quantile(histogram, 0.9)),
+                        jsonNumber(quantile(histogram, 0.99)), summary.getSecondsAboveThreshold(),
+                        summary.getSpikes(), ++e < match.getSummaries().size() ? "," : "");
+            }
+            output.printf("  ], \"temperatureCurves\": {");
+            int t = 0;
+            for (Map.Entry<String, List<Double>> curve : match.getTemperatureCurves().entrySet()) {
+                output.printf("%s\"%s\": %s", t++ > 0 ? ", " : "", escape(curve.getKey()), curve.getValue());
+            }
+            output.printf("}}%s%n", m < matches.size() - 1 ? "," : "");
+        }
+        output.println("]");
+    }
+
+    private static String quantile(Histogram histogram, double q) {
+        return histogram == null ? "" : String.format(Locale.ROOT, "%.1f", histogram.quantile(q));
+    }
+
+    private static String jsonNumber(String value) {
+        return value.isEmpty() ? "null" : value;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
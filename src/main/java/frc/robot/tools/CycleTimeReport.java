@@ -0,0 +1,132 @@
+package frc.robot.tools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import frc.robot.telemetry.CycleTimer;
+
+/**
+ * Desktop tool that reports how long scoring and intake cycles took across an
+ * event's logs.
+ *
+ * Reads the "Cycles/*" records written by {@link CycleTimer}, one log per
+ * fork-join worker, and prints the count, median and 90th percentile of each
+ * step per match plus an "ALL" block for the event. Interrupted cycles are
+ * left out.
+ *
+ * Run with ./gradlew cycleTimes --args="logs/"
+ * Arguments can be wpilog files or directories containing them.
+ */
+public class CycleTimeReport {
+    private static final String[] STEPS = { " Total (s)", " To Sensor (s)", " To Arm (s)" };
+    private static final String INTERRUPTED = " Interrupted";
+
+    private CycleTimeReport() {
+    }
+
+    public static void main(String... args) throws IOException {
+        List<Path> logs = new ArrayList<>();
+        for (String arg : args) {
+            logs.addAll(BatchLogAnalyzer.findLogs(Paths.get(arg)));
+        }
+
+        long start = System.nanoTime();
+        List<Match> matches = logs.parallelStream()
+                .map(CycleTimeReport::read)
+                .collect(Collectors.toList());
+        Match event = new Match("ALL");
+        for (Match match : matches) {
+            event.merge(match);
+        }
+        System.err.printf("Read %d logs in %.0f ms%n", logs.size(), (System.nanoTime() - start) / 1e6);
+
+        matches.add(event);
+        System.out.println("log,sequence,step,count,median,p90");
+        for (Match match : matches) {
+            for (Map.Entry<String, List<double[]>> sequence : match.cycles.entrySet()) {
+                for (int step = 0; step < STEPS.length; step++) {
+                    double[] sorted = sortedStep(sequence.getValue(), step);
+                    System.out.printf(Locale.ROOT, "\"%s\",\"%s\",\"%s\",%d,%s,%s%n", match.name, sequence.getKey(),
+                            STEPS[step].trim(), sorted.length,
+                            format(CycleTimer.percentile(sorted, sorted.length, 0.5)),
+                            format(CycleTimer.percentile(sorted, sorted.length, 0.9)));
+                }
+            }
+        }
+    }
+
+    // Completed cycles of one log, keyed by sequence name
+    private static class Match {
+        final String name;
+        final TreeMap<String, List<double[]>> cycles = new TreeMap<>();
+        // Steps of the record being read, until its interrupted field arrives
+        final TreeMap<String, double[]> pending = new TreeMap<>();
+
+        Match(String name) {
+            this.name = name;
+        }
+
+        void sample(String field, double value) {
+            if (!field.startsWith(CycleTimer.FIELD_PREFIX)) {
+                return;
+            }
+            String rest = field.substring(CycleTimer.FIELD_PREFIX.length());
+            if (rest.endsWith(INTERRUPTED)) {
+                String sequence = rest.substring(0, rest.length() - INTERRUPTED.length());
+                double[] steps = pending.remove(sequence);
+                if (steps != null && value == 0) {
+                    cycles.computeIfAbsent(sequence, key -> new ArrayList<>()).add(steps);
+                }
+                return;
+            }
+            for (int step = 0; step < STEPS.length; step++) {
+                if (rest.endsWith(STEPS[step])) {
+                    String sequence = rest.substring(0, rest.length() - STEPS[step].length());
+                    pending.computeIfAbsent(sequence, key -> newSteps())[step] = value;
+                    return;
+                }
+            }
+        }
+
+        void merge(Match other) {
+            for (Map.Entry<String, List<double[]>> sequence : other.cycles.entrySet()) {
+                cycles.computeIfAbsent(sequence.getKey(), key -> new ArrayList<>()).addAll(sequence.getValue());
+            }
+        }
+    }
+
+    private static double[] newSteps() {
+        double[] steps = new double[STEPS.length];
+        Arrays.fill(steps, Double.NaN);
+        return steps;
+    }
+
+    private static Match read(Path log) {
+        Match match = new Match(log.getFileName().toString());
+        try {
+            LogSampleReader.read(log.toString(), (field, timestamp, value) -> match.sample(field, value));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return match;
+    }
+
+    // A step's times in ascending order, skipping cycles that never reached it
+    private static double[] sortedStep(List<double[]> cycles, int step) {
+        return cycles.stream().mapToDouble(steps -> steps[step]).filter(time -> !Double.isNaN(time)).sorted()
+                .toArray();
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "" : String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,111 @@
+package frc.robot.tools;
+
+/**
+ * Running statistics for one numeric log entry.
+ *
+ * Only the running totals are kept, so a summary takes the same memory no
+ * matter how long the log is.
+ */
+public class EntrySummary {
+    private final String name;
+    private final double threshold;
+
+    private long count = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum = 0;
+
+    // Time spent above the threshold, and how many times it was crossed
+    private long microsAboveThreshold = 0;
+    private int spikes = 0;
+
+    private long lastTimestamp;
+    private double lastMagnitude;
+
+    /**
+     * @param name      the entry name
+     * @param threshold the magnitude above which time is counted and spikes are
+     *                  detected, so reverse currents count too
+     */
+    public EntrySummary(String name, double threshold) {
+        this.name = name;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Add a sample
+     *
+     * @param timestamp the sample's timestamp in microseconds
+     * @param value     the sample's value
+     */
+    public void add(long timestamp, double value) {
+        // Currents are signed by direction, so compare their magnitude
+        double magnitude = Math.abs(value);
+        if (count > 0 && lastMagnitude > threshold) {
+            microsAboveThreshold += timestamp - lastTimestamp;
+        }
+        if (magnitude > threshold && (count == 0 || lastMagnitude <= threshold)) {
+            spikes++;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value;
+        lastTimestamp = timestamp;
+        lastMagnitude = magnitude;
+    }
+
+    /**
+     * Add another summary's totals to this one. Used to combine the same entry
+     * across several logs.
+     *
+     * @param other a summary of the same entry
+     */
+    public void merge(EntrySummary other) {
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sum += other.sum;
+        microsAboveThreshold += other.microsAboveThreshold;
+        spikes += other.spikes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * @return the time the entry's magnitude spent above the threshold, in
+     *         seconds
+     */
+    public double getSecondsAboveThreshold() {
+        return microsAboveThreshold / 1e6;
+    }
+
+    /**
+     * @return how many times the entry's magnitude went above the threshold
+     */
+    public int getSpikes() {
+        return spikes;
+    }
+}
@@ -0,0 +1,75 @@
+package frc.robot.tools;
+
+/**
+ * Fixed-bin histogram that can be merged with other histograms of the same
+ * shape, so each log can be binned separately and the results combined.
+ * Values outside the range are counted in the first or last bin.
+ */
+public class Histogram {
+    private final double min;
+    private final double binWidth;
+    private final long[] bins;
+    private long count = 0;
+
+    /**
+     * @param min      the lower edge of the first bin
+     * @param max      the upper edge of the last bin
+     * @param binCount the number of bins
+     */
+    public Histogram(double min, double max, int binCount) {
+        this.min = min;
+        this.binWidth = (max - min) / binCount;
+        this.bins = new long[binCount];
+    }
+
+    /**
+     * Add a value
+     *
+     * @param value the value
+     */
+    public void add(double value) {
+        int bin = (int) ((value - min) / binWidth);
+        bins[Math.max(0, Math.min(bins.length - 1, bin))]++;
+        count++;
+    }
+
+    /**
+     * Add another histogram's counts to this one
+     *
+     * @param other a histogram with the same range and bin count
+     */
+    public void merge(Histogram other) {
+        if (other.bins.length != bins.length || other.min != min || other.binWidth != binWidth) {
+            throw new IllegalArgumentException("Can't merge histograms with different bins");
+        }
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] += other.bins[i];
+        }
+        count += other.count;
+    }
+
+    /**
+     * Get an approximate quantile, accurate to one bin width
+     *
+     * @param q the quantile in [0, 1]
+     * @return the middle of the bin holding the quantile, or NaN if empty
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long target = (long) Math.ceil(q * count);
+        long seen = 0;
+        for (int i = 0; i < bins.length; i++) {
+            seen += bins[i];
+            if (seen >= Math.max(1, target)) {
+                return min + (i + 0.5) * binWidth;
+            }
+        }
+        return min + (bins.length - 0.5) * binWidth;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
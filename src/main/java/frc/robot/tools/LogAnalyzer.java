@@ -0,0 +1,81 @@
+package frc.robot.tools;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Desktop tool that summarizes wpilog files: min, max and mean of every
+ * numeric entry, plus time above a threshold and spike counts for currents.
+ *
+ * Run with ./gradlew analyzeLog --args="FRC_20230401_132725.wpilog"
+ * Add --current-threshold=80 to change the current threshold in amps.
+ */
+public class LogAnalyzer {
+    // Default current, in amps, above which a motor counts as spiking
+    private static final double DEFAULT_CURRENT_THRESHOLD = 80;
+
+    private LogAnalyzer() {
+    }
+
+    public static void main(String... args) throws IOException {
+        double currentThreshold = DEFAULT_CURRENT_THRESHOLD;
+        for (String arg : args) {
+            if (arg.startsWith("--current-threshold=")) {
+                currentThreshold = Double.parseDouble(arg.substring("--current-threshold=".length()));
+            }
+        }
+
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                continue;
+            }
+            long start = System.nanoTime();
+            Map<String, EntrySummary> summaries = analyze(arg, currentThreshold);
+            System.out.printf("%s (%.0f ms)%n", arg, (System.nanoTime() - start) / 1e6);
+            print(summaries);
+        }
+    }
+
+    /**
+     * Summarize every numeric entry in a log
+     *
+     * @param filename         the wpilog file
+     * @param currentThreshold the threshold used for entries with "Current" in their name
+     * @return summaries by entry name, sorted by name
+     * @throws IOException if the file can't be read
+     */
+    public static Map<String, EntrySummary> analyze(String filename, double currentThreshold) throws IOException {
+        TreeMap<String, EntrySummary> summaries = new TreeMap<>();
+        LogSampleReader.read(filename, (name, timestamp, value) -> {
+            EntrySummary summary = summaries.get(name);
+            if (summary == null) {
+                summary = new EntrySummary(name, thresholdFor(name, currentThreshold));
+                summaries.put(name, summary);
+            }
+            summary.add(timestamp, value);
+        });
+        return summaries;
+    }
+
+    /**
+     * Get the threshold to use for an entry
+     *
+     * @param name             the entry name
+     * @param currentThreshold the threshold for current entries
+     * @return the threshold, or infinity if the entry isn't a current
+     */
+    static double thresholdFor(String name, double currentThreshold) {
+        return name.contains("Current") ? currentThreshold : Double.POSITIVE_INFINITY;
+    }
+
+    private static void print(Map<String, EntrySummary> summaries) {
+        System.out.printf("  %-50s %8s %10s %10s %10s %10s %6s%n", "Entry", "Count", "Min", "Max", "Mean",
+                "Above (s)", "Spikes");
+        for (EntrySummary summary : summaries.values()) {
+            System.out.printf("  %-50s %8d %10.2f %10.2f %10.2f %10.2f %6d%n", summary.getName(), summary.getCount(),
+                    summary.getMin(), summary.getMax(), summary.getMean(), summary.getSecondsAboveThreshold(),
+                    summary.getSpikes());
+        }
+    }
+}
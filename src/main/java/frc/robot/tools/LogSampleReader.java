@@ -0,0 +1,120 @@
+package frc.robot.tools;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import frc.robot.telemetry.RecordFields;
+
+/**
+ * Streams the numeric samples out of a wpilog file.
+ *
+ * DataLogReader memory-maps the file, and records are decoded one at a time
+ * and handed to a listener, so the log is never loaded into the heap. double,
+ * float, int64 and boolean entries become one series each. double[] entries
+ * with {@link RecordFields} metadata, such as the drivetrain, PDP and cycle
+ * records, are split into one series per field.
+ */
+public class LogSampleReader {
+
+    /**
+     * Receives samples as they are read
+     */
+    public interface SampleListener {
+        /**
+         * @param name      the series name
+         * @param timestamp the sample's timestamp in microseconds
+         * @param value     the sample's value
+         */
+        void sample(String name, long timestamp, double value);
+    }
+
+    // How to decode each open entry
+    private static class Entry {
+        final String type;
+        // One name for scalar entries, one per field for records
+        final String[] names;
+
+        Entry(String type, String[] names) {
+            this.type = type;
+            this.names = names;
+        }
+    }
+
+    private LogSampleReader() {
+    }
+
+    /**
+     * Read every numeric sample in a log
+     *
+     * @param filename the wpilog file
+     * @param listener receives each sample
+     * @throws IOException if the file can't be read or isn't a wpilog
+     */
+    public static void read(String filename, SampleListener listener) throws IOException {
+        DataLogReader reader = new DataLogReader(filename);
+        if (!reader.isValid()) {
+            throw new IOException(filename + " is not a valid wpilog file");
+        }
+
+        HashMap<Integer, Entry> entries = new HashMap<>();
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData start = record.getStartData();
+                Entry entry = openEntry(start.name, start.type, start.metadata);
+                if (entry != null) {
+                    entries.put(start.entry, entry);
+                }
+            } else if (record.isFinish()) {
+                entries.remove(record.getFinishEntry());
+            } else if (!record.isControl()) {
+                Entry entry = entries.get(record.getEntry());
+                if (entry != null) {
+                    readSample(entry, record, listener);
+                }
+            }
+        }
+    }
+
+    private static Entry openEntry(String name, String type, String metadata) {
+        switch (type) {
+            case "double":
+            case "float":
+            case "int64":
+            case "boolean":
+                return new Entry(type, new String[] { name });
+            case "double[]":
+                String[] fields = RecordFields.parse(metadata);
+                return fields == null ? null : new Entry(type, fields);
+            default:
+                return null;
+        }
+    }
+
+    private static void readSample(Entry entry, DataLogRecord record, SampleListener listener) {
+        long timestamp = record.getTimestamp();
+        switch (entry.type) {
+            case "double":
+                listener.sample(entry.names[0], timestamp, record.getDouble());
+                break;
+            case "float":
+                listener.sample(entry.names[0], timestamp, record.getFloat());
+                break;
+            case "int64":
+                listener.sample(entry.names[0], timestamp, record.getInteger());
+                break;
+            case "boolean":
+                listener.sample(entry.names[0], timestamp, record.getBoolean() ? 1 : 0);
+                break;
+            case "double[]":
+                double[] values = record.getDoubleArray();
+                for (int i = 0; i < values.length && i < entry.names.length; i++) {
+                    listener.sample(entry.names[i], timestamp, values[i]);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+}
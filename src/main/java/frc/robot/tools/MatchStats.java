@@ -0,0 +1,126 @@
+package frc.robot.tools;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Drivetrain statistics for one log, or for several logs merged together.
+ *
+ * Every numeric entry gets an {@link EntrySummary}. Current entries also get a
+ * {@link Histogram} so quantiles can be computed across merged logs, and
+ * temperature entries keep a coarse curve of their value over the match.
+ */
+public class MatchStats {
+    // Currents are binned in 0.5 A steps up to 250 A
+    private static final double MAX_CURRENT = 250;
+    private static final int CURRENT_BINS = 500;
+    // Temperature curves keep one point per 5 seconds
+    private static final long TEMPERATURE_BUCKET_MICROS = 5_000_000;
+
+    private final String name;
+    private final TreeMap<String, EntrySummary> summaries = new TreeMap<>();
+    private final TreeMap<String, Histogram> currentHistograms = new TreeMap<>();
+    private final TreeMap<String, List<Double>> temperatureCurves = new TreeMap<>();
+
+    /**
+     * @param name the log's file name, or a label for merged stats
+     */
+    public MatchStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Read a log and compute its statistics
+     *
+     * @param filename     the wpilog file
+     * @param currentLimit the current, in amps, above which a motor counts as current limited
+     * @return the log's statistics
+     * @throws IOException if the file can't be read
+     */
+    public static MatchStats analyze(String filename, double currentLimit) throws IOException {
+        MatchStats stats = new MatchStats(filename);
+        // First timestamp of each temperature entry, to place curve points
+        TreeMap<String, Long> temperatureStart = new TreeMap<>();
+
+        LogSampleReader.read(filename, (entryName, timestamp, value) -> {
+            EntrySummary summary = stats.summaries.get(entryName);
+            if (summary == null) {
+                summary = new EntrySummary(entryName, LogAnalyzer.thresholdFor(entryName, currentLimit));
+                stats.summaries.put(entryName, summary);
+            }
+            summary.add(timestamp, value);
+
+            if (isCurrent(entryName)) {
+                // Binned by magnitude, like the summary's time above the limit and spikes
+                stats.currentHistograms.computeIfAbsent(entryName, k -> new Histogram(0, MAX_CURRENT, CURRENT_BINS))
+                        .add(Math.abs(value));
+            } else if (isTemperature(entryName)) {
+                long start = temperatureStart.computeIfAbsent(entryName, k -> timestamp);
+                int bucket = (int) ((timestamp - start) / TEMPERATURE_BUCKET_MICROS);
+                List<Double> curve = stats.temperatureCurves.computeIfAbsent(entryName, k -> new ArrayList<>());
+                while (curve.size() <= bucket) {
+                    curve.add(value);
+                }
+                curve.set(bucket, Math.max(curve.get(bucket), value));
+            }
+        });
+        return stats;
+    }
+
+    /**
+     * Add another log's statistics to these. Temperature curves are per match,
+     * so they aren't merged.
+     *
+     * @param other the statistics to add
+     * @return these statistics, for use with reduce()
+     */
+    public MatchStats merge(MatchStats other) {
+        for (EntrySummary summary : other.summaries.values()) {
+            EntrySummary existing = summaries.get(summary.getName());
+            if (existing == null) {
+                existing = new EntrySummary(summary.getName(), summary.getThreshold());
+                summaries.put(summary.getName(), existing);
+            }
+            existing.merge(summary);
+        }
+        for (Map.Entry<String, Histogram> entry : other.currentHistograms.entrySet()) {
+            currentHistograms.computeIfAbsent(entry.getKey(), k -> new Histogram(0, MAX_CURRENT, CURRENT_BINS))
+                    .merge(entry.getValue());
+        }
+        return this;
+    }
+
+    static boolean isCurrent(String entryName) {
+        return entryName.contains("Current");
+    }
+
+    static boolean isTemperature(String entryName) {
+        return entryName.contains("Temperature");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, EntrySummary> getSummaries() {
+        return summaries;
+    }
+
+    /**
+     * @param entryName a current entry's name
+     * @return the entry's histogram, or null if it isn't a current entry
+     */
+    public Histogram getCurrentHistogram(String entryName) {
+        return currentHistograms.get(entryName);
+    }
+
+    /**
+     * @return the highest value of each temperature entry in each 5 second window
+     */
+    public Map<String, List<Double>> getTemperatureCurves() {
+        return temperatureCurves;
+    }
+}
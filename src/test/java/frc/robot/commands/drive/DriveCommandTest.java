@@ -0,0 +1,65 @@
+package frc.robot.commands.drive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.subsystems.DriveSubsystem;
+
+/**
+ * Checks that DriveCommand.execute() allocates nothing once it is running
+ */
+class DriveCommandTest {
+    // Enough calls for the JIT to compile execute() and the drive path
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 10_000;
+
+    private static DriveSubsystem drive;
+    // Joystick inputs that change every call
+    private double speed = 0;
+    private double turn = 0;
+
+    @BeforeAll
+    static void createDrive() {
+        HAL.initialize(500, 0);
+        drive = new DriveSubsystem();
+    }
+
+    @AfterAll
+    static void closeTuning() {
+        DriveTuning.close();
+    }
+
+    @Test
+    void executeAllocatesNothing() {
+        DriveCommand command = new DriveCommand(() -> speed, () -> turn, drive);
+        command.initialize();
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            step(command);
+        }
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            step(command);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        command.end(false);
+
+        assertEquals(0, allocated, "execute() allocated " + allocated + " bytes over " + MEASURED_CALLS + " calls");
+    }
+
+    private void step(DriveCommand command) {
+        speed = speed > 1 ? -1 : speed + 0.01;
+        turn = -speed;
+        command.execute();
+    }
+}
@@ -0,0 +1,161 @@
+package frc.robot.sim;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+import frc.robot.commands.AcquirePieceCommand;
+import frc.robot.commands.IndexPieceCommand;
+import frc.robot.subsystems.ConveyorSubsystem;
+import frc.robot.subsystems.ConveyorSubsystem.IntakeState;
+import frc.robot.subsystems.IntakeRollersSubsystem;
+
+/**
+ * Runs the intake through the simulation harness, toggling the beam break
+ * sensors the way a game piece would.
+ */
+class IntakeSimulationTest {
+    // The sensor interrupts run on their own threads, in real time
+    private static final long INTERRUPT_TIMEOUT_MS = 1000;
+    // Long enough for an interrupt thread to handle an edge that changes nothing
+    private static final long INTERRUPT_SETTLE_MS = 100;
+    // IntakeFromFloorCommand's back-off, in conveyor motor rotations
+    private static final double BACKOFF_ROTATIONS = 5;
+    private static final double POSITION_TOLERANCE = 0.25;
+
+    // The harness can only be created once per JVM, so the tests share it
+    private static SimulationHarness harness;
+
+    @BeforeAll
+    static void startRobot() {
+        harness = new SimulationHarness();
+    }
+
+    @AfterAll
+    static void stopRobot() {
+        harness.close();
+    }
+
+    @BeforeEach
+    void resetRobot() {
+        harness.disable();
+        harness.setIntakeSensorBlocked(false);
+        harness.setConveyorSensorBlocked(false);
+        harness.run(0.1);
+        getConveyor().resetIntakeState();
+    }
+
+    @Test
+    void beamBreakStopsAcquiringMotors() {
+        harness.enableTeleop();
+        harness.run(0.1);
+        AcquirePieceCommand acquire = new AcquirePieceCommand(0.3, -0.5, getConveyor(), getIntakeRollers());
+        acquire.schedule();
+        harness.run(0.2);
+        assertEquals(IntakeState.ACQUIRING, getConveyor().getIntakeState());
+        assertNotEquals(0, getConveyor().getSpeed(), "Conveyor isn't running");
+        assertNotEquals(0, getIntakeRollers().getSpeed(), "Rollers aren't running");
+
+        // The piece arrives between loops
+        harness.setIntakeSensorBlocked(true);
+        awaitState(IntakeState.INDEXED);
+        assertMotorsStopped("by the interrupt");
+
+        // The next loop must not start them again
+        harness.step();
+        assertFalse(acquire.isScheduled(), "Still acquiring with a piece");
+        assertMotorsStopped("after the next loop");
+        for (int i = 0; i < 25; i++) {
+            harness.step();
+            assertEquals(0, getIntakeRollers().getSpeed(), "Rollers restarted");
+        }
+        assertEquals(IntakeState.INDEXED, getConveyor().getIntakeState());
+    }
+
+    @Test
+    void indexMovesPieceSetDistance() throws InterruptedException {
+        harness.setIntakeSensorBlocked(true);
+        awaitState(IntakeState.INDEXED);
+        harness.enableTeleop();
+        harness.step();
+
+        double start = getConveyor().getPosition();
+        IndexPieceCommand index = new IndexPieceCommand(-BACKOFF_ROTATIONS, getConveyor());
+        index.schedule();
+        backOffSensor(start);
+        for (int i = 0; i < 50 && index.isScheduled(); i++) {
+            harness.step();
+        }
+
+        assertFalse(index.isScheduled(), "Index didn't reach its target in a second");
+        assertEquals(BACKOFF_ROTATIONS, getConveyor().getPosition() - start, POSITION_TOLERANCE);
+        assertEquals(IntakeState.INDEXED, getConveyor().getIntakeState(), "Indexing lost the piece");
+    }
+
+    @Test
+    void intakeKeepsPieceAfterBackingOff() throws InterruptedException {
+        harness.enableTeleop();
+        harness.run(0.1);
+        XboxControllerSim controller = harness.getDriveController();
+        controller.setLeftBumper(true);
+        controller.notifyNewData();
+        harness.step();
+        controller.setLeftBumper(false);
+        controller.notifyNewData();
+        harness.run(0.2);
+        assertTrue(harness.isArmLowered(), "Arms didn't lower");
+        assertEquals(IntakeState.ACQUIRING, getConveyor().getIntakeState());
+
+        harness.setIntakeSensorBlocked(true);
+        awaitState(IntakeState.INDEXED);
+        backOffSensor(getConveyor().getPosition());
+        harness.run(1.0);
+
+        assertFalse(harness.isArmLowered(), "Arms didn't raise");
+        assertEquals(IntakeState.INDEXED, getConveyor().getIntakeState(), "Backing off lost the piece");
+    }
+
+    /**
+     * Run the robot until the conveyor has moved the piece a rotation, then
+     * clear the intake beam as the piece leaves it
+     */
+    private static void backOffSensor(double start) throws InterruptedException {
+        for (int i = 0; i < 50 && Math.abs(getConveyor().getPosition() - start) < 1; i++) {
+            harness.step();
+        }
+        assertTrue(Math.abs(getConveyor().getPosition() - start) >= 1, "Conveyor didn't back the piece off");
+        harness.setIntakeSensorBlocked(false);
+        Thread.sleep(INTERRUPT_SETTLE_MS);
+    }
+
+    private void assertMotorsStopped(String when) {
+        assertEquals(0, getConveyor().getSpeed(), "Conveyor not stopped " + when);
+        assertEquals(0, getIntakeRollers().getSpeed(), "Rollers not stopped " + when);
+    }
+
+    /**
+     * Wait for a sensor interrupt to change the intake state
+     */
+    private static void awaitState(IntakeState state) {
+        long deadline = System.currentTimeMillis() + INTERRUPT_TIMEOUT_MS;
+        while (getConveyor().getIntakeState() != state && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(state, getConveyor().getIntakeState(), "Interrupt didn't change the state");
+    }
+
+    private static ConveyorSubsystem getConveyor() {
+        return harness.getRobotContainer().getConveyor();
+    }
+
+    private static IntakeRollersSubsystem getIntakeRollers() {
+        return harness.getRobotContainer().getIntakeRollers();
+    }
+}
@@ -0,0 +1,85 @@
+package frc.robot.sim;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+import frc.robot.subsystems.DriveSubsystem;
+
+/**
+ * Drives the whole robot through the simulation harness with scripted stick
+ * input, and checks where the drivetrain went.
+ */
+class SimulationHarnessTest {
+    // The harness can only be created once per JVM, so the tests share it
+    private static SimulationHarness harness;
+
+    @BeforeAll
+    static void startRobot() {
+        harness = new SimulationHarness();
+    }
+
+    @AfterAll
+    static void stopRobot() {
+        harness.close();
+    }
+
+    @BeforeEach
+    void resetRobot() {
+        harness.disable();
+        XboxControllerSim controller = harness.getDriveController();
+        controller.setLeftY(0);
+        controller.setRightX(0);
+        controller.notifyNewData();
+        // Let the drivetrain come to rest before moving the odometry
+        harness.run(1.0);
+        getDrive().resetPose(new Pose2d());
+        harness.run(0.1);
+    }
+
+    @Test
+    void drivesStraightWithLeftStick() {
+        harness.enableTeleop();
+        XboxControllerSim controller = harness.getDriveController();
+        controller.setLeftY(-1);
+        controller.notifyNewData();
+        harness.run(2.0);
+
+        Pose2d pose = getDrive().getPose();
+        assertTrue(pose.getTranslation().getNorm() > 0.5, "Robot only moved to " + pose);
+        assertEquals(0, pose.getRotation().getDegrees(), 5, "Robot turned while driving straight");
+    }
+
+    @Test
+    void turnsWithRightStick() {
+        harness.enableTeleop();
+        XboxControllerSim controller = harness.getDriveController();
+        controller.setRightX(1);
+        controller.notifyNewData();
+        harness.run(2.0);
+
+        Pose2d pose = getDrive().getPose();
+        assertTrue(Math.abs(pose.getRotation().getDegrees()) > 10, "Robot only turned to " + pose);
+    }
+
+    @Test
+    void staysStillWhileDisabled() {
+        XboxControllerSim controller = harness.getDriveController();
+        controller.setLeftY(-1);
+        controller.notifyNewData();
+        harness.run(1.0);
+
+        Pose2d pose = getDrive().getPose();
+        assertEquals(0, pose.getTranslation().getNorm(), 0.01, "Robot moved while disabled to " + pose);
+    }
+
+    private static DriveSubsystem getDrive() {
+        return harness.getRobotContainer().getDrive();
+    }
+}
@@ -0,0 +1,75 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Feeds BatteryModel an ideal battery and checks that it asks for the loads to
+ * be cut before the voltage reaches the limit.
+ */
+class BatteryModelTest {
+    private static final double OPEN_CIRCUIT_VOLTAGE = 12.6;
+    private static final double RESISTANCE = 0.025;
+    private static final double MIN_VOLTAGE = 7.5;
+    private static final int LOOKAHEAD = 5;
+
+    private BatteryModel battery;
+
+    @BeforeEach
+    void learnBattery() {
+        battery = new BatteryModel();
+        // Five seconds of ordinary driving, so the resistance can be measured
+        for (int i = 0; i < 250; i++) {
+            add(40 + 20 * Math.sin(i * 0.3));
+        }
+    }
+
+    @Test
+    void learnsResistanceAndOpenCircuitVoltage() {
+        assertEquals(RESISTANCE, battery.getResistance(), 0.001);
+        assertEquals(OPEN_CIRCUIT_VOLTAGE, battery.getOpenCircuitVoltage(), 0.05);
+    }
+
+    @Test
+    void scalesBeforeVoltageReachesLimit() {
+        double current = 40;
+        // Current rising 10 A per cycle, as in a pushing match
+        for (int i = 0; i < 100; i++) {
+            current += 10;
+            double voltage = add(current);
+            if (battery.getAllowedFraction(MIN_VOLTAGE, LOOKAHEAD) < 1) {
+                assertTrue(voltage > MIN_VOLTAGE + 0.5, "Only started scaling at " + voltage + " V");
+                return;
+            }
+        }
+        fail("Never started scaling");
+    }
+
+    @Test
+    void stopsScalingOnceCurrentSettles() {
+        // 180 A holds the battery at 8.1 V, above the limit. The jump itself
+        // looks like a rising current, so give the trend a second to settle.
+        for (int i = 0; i < 50; i++) {
+            add(180);
+        }
+        for (int i = 0; i < 100; i++) {
+            add(180);
+            assertEquals(1, battery.getAllowedFraction(MIN_VOLTAGE, LOOKAHEAD));
+        }
+    }
+
+    /**
+     * Add a sample from the ideal battery
+     *
+     * @return the battery voltage at that current
+     */
+    private double add(double current) {
+        double voltage = OPEN_CIRCUIT_VOLTAGE - RESISTANCE * current;
+        battery.update(voltage, current);
+        return voltage;
+    }
+}